@@ -0,0 +1,42 @@
+package nu.nerd;
+
+import net.kyori.adventure.text.Component;
+import nu.nerd.api.CustomHead;
+import nu.nerd.catalog.HeadRule;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link CustomHead} view of a catalog {@link HeadRule}. Only reads the rule, and makes
+ * heads through {@link MobHeadFactory}, so callers never see the rule's shared template.
+ *
+ * @param rule the catalog rule
+ */
+record CatalogHead(HeadRule rule) implements CustomHead {
+
+    @Override
+    public String mob() {
+        return rule.dropKey();
+    }
+
+    @Override
+    public @Nullable EntityType entityType() {
+        return rule.entityType();
+    }
+
+    @Override
+    public @Nullable String variant() {
+        return rule.variantKey();
+    }
+
+    @Override
+    public Component displayName() {
+        return MobHeadFactory.displayName(rule);
+    }
+
+    @Override
+    public ItemStack createHead(int amount) {
+        return MobHeadFactory.issueHead(rule, "api", amount);
+    }
+}
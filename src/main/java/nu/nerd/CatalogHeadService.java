@@ -0,0 +1,55 @@
+package nu.nerd;
+
+import nu.nerd.api.CustomHead;
+import nu.nerd.api.CustomHeadService;
+import nu.nerd.catalog.HeadRule;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * {@link CustomHeadService} implementation backed by the plugin's {@link nu.nerd.catalog.HeadCatalog}.
+ * <p>
+ * The catalog is an immutable snapshot swapped atomically on reload, and rule templates
+ * are built under a per-rule lock, so every method is safe to call off the main thread.
+ */
+class CatalogHeadService implements CustomHeadService {
+
+    private final CustomDrops plugin;
+
+    CatalogHeadService(CustomDrops plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public @Nullable ItemStack createHead(EntityType type, @Nullable String variant, int amount) {
+        HeadRule rule = plugin.getCatalog().rule(type.name(), variant);
+        return rule != null ? MobHeadFactory.issueHead(rule, "api", amount) : null;
+    }
+
+    @Override
+    public boolean isCustomHead(@Nullable ItemStack item) {
+        return MobHeadFactory.isCustomHead(item);
+    }
+
+    @Override
+    public @Nullable String soundFor(String texture) {
+        HeadRule rule = plugin.getCatalog().ruleForTexture(texture);
+        return rule != null ? rule.headSound() : null;
+    }
+
+    @Override
+    public boolean isReady() {
+        return plugin.isCatalogWarm();
+    }
+
+    @Override
+    public List<CustomHead> heads() {
+        List<HeadRule> rules = plugin.getCatalog().rules();
+        CustomHead[] heads = new CustomHead[rules.size()];
+        for (int i = 0; i < heads.length; i++) heads[i] = new CatalogHead(rules.get(i));
+        return List.of(heads);
+    }
+}
@@ -1,10 +1,31 @@
 package nu.nerd;
 
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import nu.nerd.api.CustomHeadService;
+import nu.nerd.catalog.CatalogValidator;
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadFiles;
+import nu.nerd.catalog.HeadRule;
 import nu.nerd.commands.MobHeadCommand;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchService;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
 /**
  * Main plugin class for NerdNuCustomDrops.
  * <p>
@@ -18,6 +39,8 @@ import org.slf4j.LoggerFactory;
  *     <li>Persistence of head display name, lore, and texture via {@link HeadPersistenceListener}.</li>
  *     <li>Custom head sounds through {@link NoteblockHeadSoundListener}.</li>
  *     <li>A {@code /mobhead} command to list available mob heads.</li>
+ *     <li>A paged head catalog GUI via {@link HeadCatalogMenu}.</li>
+ *     <li>A {@link CustomHeadService} registered with the ServicesManager for other plugins.</li>
  * </ul>
  *
  * Licensed under the MIT License. See LICENSE file for details.
@@ -28,6 +51,41 @@ public class CustomDrops extends JavaPlugin {
     // SLF4J logger instance for the plugin
     private static final Logger LOGGER = LoggerFactory.getLogger(CustomDrops.class);
 
+    // Compiled view of the drops section; replaced (never mutated) on reload
+    private volatile HeadCatalog catalog;
+    private volatile HeadCatalog warmCatalog;
+    private long catalogVersion;
+    private HeadDropCoalescer dropCoalescer;
+    private final DropRateLimiter rateLimiter = new DropRateLimiter();
+    private final NoteSoundThrottle noteSoundThrottle = new NoteSoundThrottle();
+    private final DamageAttribution damageAttribution = new DamageAttribution();
+    private final ListenerProfiler profiler = new ListenerProfiler(this);
+    private WatchService headFileWatcher;
+    private HeadSerialTracker serialTracker;
+    private HeadCollectionTracker collections;
+    private HeadLeaderboards leaderboards;
+
+    /**
+     * Creates the plugin. Called by the server's plugin loader.
+     */
+    public CustomDrops() {
+        super();
+    }
+
+    /**
+     * Creates the plugin outside a running server, for the allocation tests and the load
+     * harness. Nothing is enabled; a catalog is installed with {@link #useCatalog}.
+     *
+     * @param loader      loader holding the (stub) server
+     * @param description the plugin description
+     * @param dataFolder  the data folder
+     * @param file        the plugin jar (need not exist)
+     */
+    @SuppressWarnings({"deprecation", "removal"})
+    CustomDrops(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
+
     /**
      * Provides access to the plugin's SLF4J {@link Logger}.
      * <p>
@@ -39,12 +97,218 @@ public class CustomDrops extends JavaPlugin {
         return LOGGER;
     }
 
+    /**
+     * Returns the current compiled head catalog.
+     * <p>
+     * The returned snapshot is immutable; callers that cache data derived from it
+     * should compare {@link HeadCatalog#version()} to detect reloads.
+     *
+     * @return the current catalog
+     */
+    public HeadCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Returns whether every head template of the current catalog has been prebuilt.
+     * <p>
+     * Heads can be created either way; before warm-up completes they are built on demand.
+     *
+     * @return {@code true} once the current catalog is fully warmed up
+     */
+    public boolean isCatalogWarm() {
+        HeadCatalog current = catalog;
+        return current != null && current == warmCatalog;
+    }
+
+    /**
+     * Installs an already compiled catalog as is, without validation or template warm-up.
+     * Only for the allocation tests and the load harness, which cannot build items.
+     *
+     * @param compiled the catalog to use
+     */
+    void useCatalog(HeadCatalog compiled) {
+        catalog = compiled;
+    }
+
+    /**
+     * Records that the given catalog has finished warming up.
+     *
+     * @param warmed the catalog whose templates are all built
+     */
+    void markCatalogWarm(HeadCatalog warmed) {
+        warmCatalog = warmed;
+    }
+
+    /**
+     * Returns the head drop rate limiter.
+     *
+     * @return the rate limiter
+     */
+    public DropRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Returns the damage-share attribution for boss mobs.
+     *
+     * @return the damage attribution
+     */
+    public DamageAttribution getDamageAttribution() {
+        return damageAttribution;
+    }
+
+    /**
+     * Returns the note block head sound throttle.
+     *
+     * @return the note sound throttle
+     */
+    public NoteSoundThrottle getNoteSoundThrottle() {
+        return noteSoundThrottle;
+    }
+
+    /**
+     * Returns the event handler profiler used by {@code /mobhead profile}.
+     *
+     * @return the listener profiler
+     */
+    public ListenerProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Returns the head serial tracker.
+     *
+     * @return the tracker, or {@code null} if {@code head-serials.enabled} is false
+     */
+    public @Nullable HeadSerialTracker getSerialTracker() {
+        return serialTracker;
+    }
+
+    /**
+     * Returns the per-player head collection tracker.
+     *
+     * @return the collection tracker
+     */
+    public HeadCollectionTracker getCollections() {
+        return collections;
+    }
+
+    /**
+     * Returns the head leaderboards.
+     *
+     * @return the leaderboards
+     */
+    public HeadLeaderboards getLeaderboards() {
+        return leaderboards;
+    }
+
+    /**
+     * Reloads {@code config.yml} from disk and compiles a new head catalog.
+     */
+    public void reloadCatalog() {
+        reloadConfig();
+        compileCatalog(HeadFiles.loadAll(headsDirectory(), LOGGER), Set.of(), null);
+        startHeadFileWatcher();
+        rateLimiter.configure(getConfig());
+        noteSoundThrottle.configure(getConfig());
+        damageAttribution.configure(getConfig(), LOGGER);
+        LOGGER.info("Reloaded head catalog (version {}, {} drops).", catalog.version(), catalog.dropKeys().size());
+    }
+
+    /**
+     * Applies head files that changed on disk, recompiling only the affected drops.
+     * Called on the main thread by the {@link HeadFileWatcher}.
+     *
+     * @param updated newly parsed head files, by drop key
+     * @param removed drop keys whose head file was deleted
+     */
+    void applyHeadFileChanges(Map<String, ConfigurationSection> updated, Set<String> removed) {
+        Set<String> changed = new TreeSet<>(updated.keySet());
+        changed.addAll(removed);
+        compileCatalog(updated, removed, catalog);
+        LOGGER.info("Applied head file changes to {} (catalog version {}).", changed, catalog.version());
+        if (!removed.isEmpty()) {
+            LOGGER.info("Mobs whose head file was deleted are left out until /mobhead reload, which restores any config.yml entry.");
+        }
+    }
+
+    /**
+     * @return the directory holding per-mob head files
+     */
+    private Path headsDirectory() {
+        return getDataFolder().toPath().resolve(getConfig().getString("heads-directory", "heads"));
+    }
+
+    /**
+     * (Re)starts watching the heads directory, if it exists and watching is enabled.
+     */
+    private void startHeadFileWatcher() {
+        stopHeadFileWatcher();
+        Path directory = headsDirectory();
+        if (!getConfig().getBoolean("watch-heads-directory", true) || !Files.isDirectory(directory)) return;
+
+        try {
+            headFileWatcher = HeadFileWatcher.start(this, directory, LOGGER);
+        } catch (IOException e) {
+            LOGGER.warn("Could not watch head files in {}", directory, e);
+        }
+    }
+
+    private void stopHeadFileWatcher() {
+        if (headFileWatcher == null) return;
+        try {
+            headFileWatcher.close();
+        } catch (IOException ignored) {}
+        headFileWatcher = null;
+    }
+
+    /**
+     * Compiles the current configuration and the given head files into a new catalog with
+     * the next version number, and starts prebuilding its head templates in the background.
+     * <p>
+     * Once compiled, the {@code drops} tree is removed from the in-memory configuration and
+     * its defaults: the catalog holds everything the runtime needs, so the YAML sections (and their
+     * duplicated lore, sound and texture strings) can be garbage collected. Before that,
+     * the compiled sections are validated and any problems are logged as one report.
+     *
+     * @param headFiles head file sections to compile, by drop key
+     * @param removed   drop keys to leave out
+     * @param previous  the catalog to carry unchanged drops over from, or {@code null} to compile everything
+     */
+    private void compileCatalog(Map<String, ConfigurationSection> headFiles, Set<String> removed,
+                                @Nullable HeadCatalog previous) {
+        long start = System.nanoTime();
+        HeadCatalog compiled = HeadCatalog.compile(getConfig(), headFiles, removed, ++catalogVersion, previous);
+        long compileNanos = System.nanoTime() - start;
+
+        // Validate what was just compiled (all drops, or only the changed head files)
+        Map<String, ConfigurationSection> compiledSections = new LinkedHashMap<>();
+        ConfigurationSection drops = getConfig().getConfigurationSection("drops");
+        if (drops != null) {
+            for (String dropKey : drops.getKeys(false)) {
+                ConfigurationSection section = drops.getConfigurationSection(dropKey);
+                if (section != null) compiledSections.put(dropKey, section);
+            }
+        }
+        compiledSections.putAll(headFiles);
+        CatalogValidator.validate(compiledSections, compiled).log(LOGGER);
+
+        // The jar's config.yml is attached as defaults and holds its own copy of the drops
+        getConfig().set("drops", null);
+        Configuration defaults = getConfig().getDefaults();
+        if (defaults != null) defaults.set("drops", null);
+        catalog = compiled;
+        collections.assignOrdinals(compiled.rules().stream().map(HeadRule::toString).toList());
+        HeadCatalogWarmUp.start(this, compiled, compileNanos, LOGGER);
+    }
+
     /**
      * Called by Bukkit when the plugin is enabled.
      * <p>
      * This method:
      * <ul>
-     *     <li>Loads the default configuration file if it does not exist.</li>
+     *     <li>Loads the default configuration file if it does not exist and compiles the head catalog.</li>
      *     <li>Registers event listeners for mob deaths, head persistence, and note block sounds.</li>
      *     <li>Registers the {@code /mobhead} command if defined in {@code plugin.yml}.</li>
      *     <li>Logs a warning if the command cannot be registered.</li>
@@ -54,29 +318,57 @@ public class CustomDrops extends JavaPlugin {
     public void onEnable() {
         // Load the plugin's default config (or custom config)
         saveDefaultConfig();  // This will load the config.yml if it doesn't already exist
+        collections = HeadCollectionTracker.load(this, LOGGER);
+        leaderboards = HeadLeaderboards.load(this, LOGGER);
+        compileCatalog(HeadFiles.loadAll(headsDirectory(), LOGGER), Set.of(), null);
+        startHeadFileWatcher();
+        rateLimiter.configure(getConfig());
+        noteSoundThrottle.configure(getConfig());
+        damageAttribution.configure(getConfig(), LOGGER);
+
+        // Start tracking head serials for dupe detection
+        serialTracker = HeadSerialTracker.start(this, LOGGER);
+
+        // Register the HeadDropCoalescer to spawn each tick's head drops together
+        dropCoalescer = new HeadDropCoalescer();
+        getServer().getPluginManager().registerEvents(dropCoalescer, this);
 
         // Register the MobDeathListener to handle mob deaths and custom drops
-        getServer().getPluginManager().registerEvents(new MobDeathListener(this), this);
+        getServer().getPluginManager().registerEvents(new MobDeathListener(this, dropCoalescer, rateLimiter, collections, leaderboards, damageAttribution), this);
+
+        // Register the HeadCollectionTracker to add picked-up heads to collections
+        getServer().getPluginManager().registerEvents(collections, this);
 
         // Register the HeadPersistenceListener to handle NBT Data to stay on heads when placed and broken
         getServer().getPluginManager().registerEvents(new HeadPersistenceListener(this, LOGGER), this);
 
         // Register the NoteBlockHeadSoundListener to handle noteblock sounds for the heads
         getServer().getPluginManager().registerEvents(
-                new NoteblockHeadSoundListener(this, getConfig()),
+                new NoteblockHeadSoundListener(this, noteSoundThrottle),
                 this
         );
 
+        // Register the ListenerProfiler so /mobhead profile can close each tick
+        getServer().getPluginManager().registerEvents(profiler, this);
+
+        // Register the HeadCatalogMenu to handle clicks in the head catalog GUI
+        HeadCatalogMenu menu = new HeadCatalogMenu(this);
+        getServer().getPluginManager().registerEvents(menu, this);
+
         // Register /mobhead command with executor AND tab completer
         var mobheadCommand = getCommand("mobhead");
         if (mobheadCommand != null) {
-            MobHeadCommand commandHandler = new MobHeadCommand(this);
+            MobHeadCommand commandHandler = new MobHeadCommand(this, menu);
             mobheadCommand.setExecutor(commandHandler);
             mobheadCommand.setTabCompleter(commandHandler); // <--- tab completion enabled
+            getServer().getPluginManager().registerEvents(commandHandler, this); // async tab completion
         } else {
             LOGGER.warn("The 'mobhead' command was not found in plugin.yml or failed to load.");
         }
 
+        // Expose heads to other plugins through the ServicesManager
+        getServer().getServicesManager().register(CustomHeadService.class, new CatalogHeadService(this), this, ServicePriority.Normal);
+
         // Log that the plugin has been successfully enabled
         LOGGER.info("NerdNuCustomDrops plugin has been enabled!");
     }
@@ -88,6 +380,12 @@ public class CustomDrops extends JavaPlugin {
      */
     @Override
     public void onDisable() {
+        if (dropCoalescer != null) dropCoalescer.flush();
+        stopHeadFileWatcher();
+        if (serialTracker != null) serialTracker.stop();
+        if (collections != null) collections.save(true);
+        if (leaderboards != null) leaderboards.snapshot();
+        getServer().getServicesManager().unregisterAll(this);
         LOGGER.info("NerdNuCustomDrops plugin has been disabled.");
     }
 }
\ No newline at end of file
@@ -0,0 +1,215 @@
+package nu.nerd;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Optional damage-share attribution for boss and high-HP mobs.
+ * <p>
+ * For configured mob types, every player hit adds to a per-mob ledger of damage by
+ * player. When the mob dies, its head goes to the top contributor ({@code mode: top}),
+ * or to a participant picked at random in proportion to their damage ({@code mode: share}),
+ * instead of whoever landed the last hit. Contributions older than {@code expire-seconds}
+ * are ignored, and ledgers of mobs that never died are swept once they expire.
+ * <p>
+ * Other mob types cost a single array lookup per hit. Main thread only.
+ * <p>
+ * Configured under {@code damage-attribution} in {@code config.yml}.
+ */
+public class DamageAttribution {
+
+    /** How a tracked mob's head is attributed */
+    public enum Mode { TOP, SHARE }
+
+    private final boolean[] tracked = new boolean[EntityType.values().length];
+    private final Map<UUID, Ledger> ledgers = new HashMap<>();
+    private Mode mode = Mode.TOP;
+    private int expireTicks = 20 * 300;
+    private int sweepAt = 64;
+
+    // Counters for /mobhead stats
+    private long attributed;
+    private long changedKiller;
+
+    /**
+     * (Re)reads the {@code damage-attribution} settings and forgets all ledgers.
+     *
+     * @param config the plugin configuration
+     * @param logger logger for unknown mob types
+     */
+    public void configure(FileConfiguration config, Logger logger) {
+        Arrays.fill(tracked, false);
+        ledgers.clear();
+
+        ConfigurationSection section = config.getConfigurationSection("damage-attribution");
+        if (section == null) return;
+        for (String name : section.getStringList("mobs")) {
+            try {
+                tracked[EntityType.valueOf(name.toUpperCase(Locale.ROOT)).ordinal()] = true;
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown mob in damage-attribution.mobs: {}", name);
+            }
+        }
+        mode = "share".equalsIgnoreCase(section.getString("mode")) ? Mode.SHARE : Mode.TOP;
+        expireTicks = Math.max(1, section.getInt("expire-seconds", 300)) * 20;
+    }
+
+    /**
+     * @param type a mob type
+     * @return whether hits on this type are tracked
+     */
+    public boolean tracks(EntityType type) {
+        return tracked[type.ordinal()];
+    }
+
+    /**
+     * Adds a player's hit to a tracked mob's ledger. Callers check {@link #tracks} first.
+     *
+     * @param victim the mob that was hit
+     * @param player the player responsible for the hit
+     * @param damage the damage dealt, already capped at the mob's remaining health
+     */
+    public void record(Entity victim, Player player, double damage) {
+        if (damage <= 0) return;
+        int now = Bukkit.getCurrentTick();
+
+        Ledger ledger = ledgers.get(victim.getUniqueId());
+        if (ledger == null) {
+            if (ledgers.size() >= sweepAt) {
+                sweep(now);
+                sweepAt = Math.max(64, ledgers.size() * 2);
+            }
+            ledger = new Ledger();
+            ledgers.put(victim.getUniqueId(), ledger);
+        }
+        ledger.add(player.getUniqueId(), (float) damage, now);
+    }
+
+    /**
+     * Picks the player who earned a tracked mob's head and forgets the mob's ledger.
+     *
+     * @param victim the mob that died
+     * @param lastHit the player who landed the killing blow, or {@code null}
+     * @return the attributed online player, or {@code lastHit} if no contribution is left
+     */
+    public @Nullable Player attribute(Entity victim, @Nullable Player lastHit) {
+        Ledger ledger = ledgers.remove(victim.getUniqueId());
+        if (ledger == null) return lastHit;
+
+        int now = Bukkit.getCurrentTick();
+        Player[] players = new Player[ledger.size];
+        double total = 0;
+        for (int i = 0; i < ledger.size; i++) {
+            if (now - ledger.lastHit[i] > expireTicks) continue;
+            players[i] = Bukkit.getPlayer(new UUID(ledger.most[i], ledger.least[i]));
+            if (players[i] != null) total += ledger.damage[i];
+        }
+        if (total <= 0) return lastHit;
+
+        Player chosen = null;
+        if (mode == Mode.TOP) {
+            float best = -1;
+            for (int i = 0; i < ledger.size; i++) {
+                if (players[i] != null && ledger.damage[i] > best) {
+                    best = ledger.damage[i];
+                    chosen = players[i];
+                }
+            }
+        } else {
+            double pick = ThreadLocalRandom.current().nextDouble(total);
+            for (int i = 0; i < ledger.size && chosen == null; i++) {
+                if (players[i] == null) continue;
+                pick -= ledger.damage[i];
+                if (pick < 0) chosen = players[i];
+            }
+            // Rounding can leave pick just above zero; fall back to the last participant
+            for (int i = ledger.size - 1; chosen == null && i >= 0; i--) chosen = players[i];
+        }
+
+        attributed++;
+        if (chosen != lastHit) changedKiller++;
+        return chosen;
+    }
+
+    /**
+     * Drops ledgers whose latest hit has expired, e.g. for mobs that despawned or
+     * were unloaded instead of dying.
+     */
+    private void sweep(int now) {
+        for (Iterator<Ledger> it = ledgers.values().iterator(); it.hasNext(); ) {
+            if (now - it.next().latest > expireTicks) it.remove();
+        }
+    }
+
+    /** @return the attribution mode */
+    public Mode mode() {
+        return mode;
+    }
+
+    /** @return number of tracked mob kills attributed by damage */
+    public long attributed() {
+        return attributed;
+    }
+
+    /** @return number of attributed kills whose head went to someone other than the last hitter */
+    public long changedKiller() {
+        return changedKiller;
+    }
+
+    /** @return number of mobs with an open damage ledger */
+    public int trackedMobs() {
+        return ledgers.size();
+    }
+
+    /**
+     * Damage per player against one mob, as parallel primitive arrays. Boss fights
+     * rarely involve more than a handful of players, so lookups are linear.
+     */
+    private static final class Ledger {
+        long[] most = new long[4];
+        long[] least = new long[4];
+        float[] damage = new float[4];
+        int[] lastHit = new int[4];
+        int size;
+        int latest;
+
+        void add(UUID player, float amount, int now) {
+            long m = player.getMostSignificantBits();
+            long l = player.getLeastSignificantBits();
+            latest = now;
+            for (int i = 0; i < size; i++) {
+                if (most[i] == m && least[i] == l) {
+                    damage[i] += amount;
+                    lastHit[i] = now;
+                    return;
+                }
+            }
+            if (size == most.length) {
+                int capacity = size * 2;
+                most = Arrays.copyOf(most, capacity);
+                least = Arrays.copyOf(least, capacity);
+                damage = Arrays.copyOf(damage, capacity);
+                lastHit = Arrays.copyOf(lastHit, capacity);
+            }
+            most[size] = m;
+            least[size] = l;
+            damage[size] = amount;
+            lastHit[size] = now;
+            size++;
+        }
+    }
+}
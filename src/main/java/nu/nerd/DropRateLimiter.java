@@ -0,0 +1,111 @@
+package nu.nerd;
+
+import nu.nerd.utils.TokenBucketMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Optional token-bucket limiter on head drop rolls, keyed per chunk and per killer.
+ * <p>
+ * Every player kill that would roll for a head first takes a token from the bucket of
+ * the chunk the mob died in and from the killer's bucket. If either is empty the roll
+ * is skipped, which caps how many heads an automated farm can produce. Buckets refill
+ * continuously over time. Lookups use primitive {@link TokenBucketMap}s keyed by packed
+ * longs, so the check does not allocate. Main thread only, so no locking is needed.
+ * <p>
+ * Configured under {@code drop-rate-limit} in {@code config.yml}.
+ */
+public class DropRateLimiter {
+
+    private static final double TICKS_PER_MINUTE = 20.0 * 60.0;
+
+    private final TokenBucketMap chunkBuckets = new TokenBucketMap(1, 0);
+    private final TokenBucketMap playerBuckets = new TokenBucketMap(1, 0);
+    private boolean enabled;
+
+    // Counters for /mobhead stats
+    private long allowed;
+    private long limitedByChunk;
+    private long limitedByPlayer;
+
+    /**
+     * (Re)reads the {@code drop-rate-limit} settings and clears all buckets.
+     *
+     * @param config the plugin configuration
+     */
+    public void configure(FileConfiguration config) {
+        ConfigurationSection section = config.getConfigurationSection("drop-rate-limit");
+        enabled = section != null && section.getBoolean("enabled", false);
+        if (section == null) return;
+
+        chunkBuckets.reset(section.getDouble("per-chunk.capacity", 20),
+                section.getDouble("per-chunk.refill-per-minute", 10) / TICKS_PER_MINUTE);
+        playerBuckets.reset(section.getDouble("per-player.capacity", 40),
+                section.getDouble("per-player.refill-per-minute", 20) / TICKS_PER_MINUTE);
+    }
+
+    /**
+     * Takes a token for a head roll, if both the chunk and the killer have one left.
+     *
+     * @param victim the mob that died
+     * @param killer the player who killed it
+     * @return {@code true} if the roll may proceed (always when the limiter is disabled)
+     */
+    public boolean tryAcquire(Entity victim, Player killer) {
+        if (!enabled) return true;
+
+        int now = Bukkit.getCurrentTick();
+
+        UUID worldId = victim.getWorld().getUID();
+        long chunkKey = Chunk.getChunkKey((int) Math.floor(victim.getX()) >> 4, (int) Math.floor(victim.getZ()) >> 4);
+        long chunkBucketKey = chunkKey ^ (worldId.getMostSignificantBits() * 31 + worldId.getLeastSignificantBits());
+        int chunkSlot = chunkBuckets.refill(chunkBucketKey, now);
+        if (!chunkBuckets.hasToken(chunkSlot)) {
+            limitedByChunk++;
+            return false;
+        }
+
+        UUID playerId = killer.getUniqueId();
+        int playerSlot = playerBuckets.refill(playerId.getMostSignificantBits() ^ playerId.getLeastSignificantBits(), now);
+        if (!playerBuckets.hasToken(playerSlot)) {
+            limitedByPlayer++;
+            return false;
+        }
+
+        chunkBuckets.consume(chunkSlot);
+        playerBuckets.consume(playerSlot);
+        allowed++;
+        return true;
+    }
+
+    /** @return whether the limiter is enabled in the configuration */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** @return number of rolls that passed the limiter */
+    public long allowed() {
+        return allowed;
+    }
+
+    /** @return number of rolls skipped because the chunk's bucket was empty */
+    public long limitedByChunk() {
+        return limitedByChunk;
+    }
+
+    /** @return number of rolls skipped because the killer's bucket was empty */
+    public long limitedByPlayer() {
+        return limitedByPlayer;
+    }
+
+    /** @return number of chunk and player buckets currently tracked */
+    public int trackedBuckets() {
+        return chunkBuckets.size() + playerBuckets.size();
+    }
+}
@@ -0,0 +1,177 @@
+package nu.nerd;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadRule;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Paged chest GUI for browsing every head in the catalog.
+ * <p>
+ * Pages are built lazily the first time they are opened and the same {@link Inventory}
+ * is then shown to every viewer, so opening a page never rebuilds its heads. All pages
+ * are dropped when the catalog version changes. The displayed items are clones of the
+ * cached head templates from {@link MobHeadFactory#createHead(HeadRule)}.
+ * <p>
+ * Clicking a head gives a copy to players with {@code nerdnucustomdrops.mobhead.give}.
+ */
+public class HeadCatalogMenu implements Listener {
+
+    /** Head slots per page (five rows); the sixth row holds navigation */
+    private static final int HEADS_PER_PAGE = 45;
+    private static final int PREVIOUS_SLOT = 45;
+    private static final int INFO_SLOT = 49;
+    private static final int NEXT_SLOT = 53;
+
+    private final CustomDrops plugin;
+
+    // Main thread only
+    private long builtVersion = -1;
+    private Page[] pages = new Page[0];
+
+    /**
+     * Constructs a new HeadCatalogMenu.
+     *
+     * @param plugin the main plugin instance used to access the catalog
+     */
+    public HeadCatalogMenu(CustomDrops plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Opens a page of the catalog for a player.
+     *
+     * @param player the viewer
+     * @param page   1-based page number; clamped to the valid range
+     */
+    public void open(Player player, int page) {
+        HeadCatalog catalog = plugin.getCatalog();
+        if (builtVersion != catalog.version()) {
+            int pageCount = Math.max(1, (catalog.rules().size() + HEADS_PER_PAGE - 1) / HEADS_PER_PAGE);
+            pages = new Page[pageCount];
+            builtVersion = catalog.version();
+        }
+
+        int index = Math.clamp(page, 1, pages.length) - 1;
+        Page target = pages[index];
+        if (target == null) {
+            target = new Page(catalog, index, pages.length);
+            pages[index] = target;
+        }
+        player.openInventory(target.getInventory());
+    }
+
+    /**
+     * Cancels every click while a catalog page is open, and handles head and
+     * navigation clicks in the top inventory.
+     *
+     * @param event the inventory click event
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (!(event.getView().getTopInventory().getHolder(false) instanceof Page page)) return;
+        event.setCancelled(true);
+
+        if (!(event.getWhoClicked() instanceof Player player)) return;
+        if (event.getClickedInventory() != event.getView().getTopInventory()) return;
+
+        // The catalog was reloaded while this page was open
+        if (page.version != plugin.getCatalog().version()) {
+            open(player, page.index + 1);
+            return;
+        }
+
+        int slot = event.getRawSlot();
+        if (slot == PREVIOUS_SLOT && page.index > 0) {
+            open(player, page.index);
+        } else if (slot == NEXT_SLOT && page.index + 1 < page.pageCount) {
+            open(player, page.index + 2);
+        } else if (slot < HEADS_PER_PAGE) {
+            HeadRule rule = page.ruleAt(slot);
+            if (rule == null) return;
+            if (!player.hasPermission("nerdnucustomdrops.mobhead.give")) {
+                player.sendMessage(Component.text("You do not have permission to give mob heads!", NamedTextColor.RED));
+                return;
+            }
+
+            ItemStack head = MobHeadFactory.issueHead(rule, "menu");
+            if (!player.getInventory().addItem(head).isEmpty()) {
+                player.getWorld().dropItemNaturally(player.getLocation(), head);
+            }
+            String name = rule.dropKey() + (rule.variantKey() != null ? " (" + rule.variantKey() + ")" : "");
+            player.sendMessage(Component.text("You received a " + name + " head!", NamedTextColor.GREEN));
+        }
+    }
+
+    /**
+     * Prevents dragging items into a catalog page.
+     *
+     * @param event the inventory drag event
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        if (event.getView().getTopInventory().getHolder(false) instanceof Page) {
+            event.setCancelled(true);
+        }
+    }
+
+    /**
+     * One page of the menu, shared by all viewers of that page.
+     */
+    private static final class Page implements InventoryHolder {
+        final long version;
+        final int index;
+        final int pageCount;
+        final List<HeadRule> rules;
+        final Inventory inventory;
+
+        Page(HeadCatalog catalog, int index, int pageCount) {
+            this.version = catalog.version();
+            this.index = index;
+            this.pageCount = pageCount;
+
+            List<HeadRule> all = catalog.rules();
+            int from = Math.min(all.size(), index * HEADS_PER_PAGE);
+            this.rules = all.subList(from, Math.min(all.size(), from + HEADS_PER_PAGE));
+
+            this.inventory = Bukkit.createInventory(this, 54,
+                    Component.text("Mob Heads (" + (index + 1) + "/" + pageCount + ")"));
+            for (int slot = 0; slot < rules.size(); slot++) {
+                inventory.setItem(slot, MobHeadFactory.createHead(rules.get(slot)));
+            }
+            if (index > 0) inventory.setItem(PREVIOUS_SLOT, button(Material.ARROW, "Previous page"));
+            inventory.setItem(INFO_SLOT, button(Material.BOOK, "Page " + (index + 1) + " of " + pageCount));
+            if (index + 1 < pageCount) inventory.setItem(NEXT_SLOT, button(Material.ARROW, "Next page"));
+        }
+
+        HeadRule ruleAt(int slot) {
+            return slot < rules.size() ? rules.get(slot) : null;
+        }
+
+        private static ItemStack button(Material material, String label) {
+            ItemStack item = new ItemStack(material);
+            item.editMeta(meta -> meta.displayName(Component.text(label, NamedTextColor.GOLD)
+                    .decoration(TextDecoration.ITALIC, false)));
+            return item;
+        }
+
+        @Override
+        public @NotNull Inventory getInventory() {
+            return inventory;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package nu.nerd;
+
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadRule;
+import org.slf4j.Logger;
+
+/**
+ * Prebuilds every head template of a catalog on a background thread.
+ * <p>
+ * Runs on its own daemon thread rather than the Bukkit scheduler, because async
+ * scheduler tasks only start once the server ticks, i.e. after boot has finished.
+ * Until the warm-up completes, drops and gives simply build the templates they need
+ * on demand (per-rule locking ensures no template is built twice). If the catalog
+ * is reloaded mid-way, the stale warm-up stops early.
+ */
+final class HeadCatalogWarmUp implements Runnable {
+
+    private final CustomDrops plugin;
+    private final HeadCatalog catalog;
+    private final long compileNanos;
+    private final Logger logger;
+
+    private HeadCatalogWarmUp(CustomDrops plugin, HeadCatalog catalog, long compileNanos, Logger logger) {
+        this.plugin = plugin;
+        this.catalog = catalog;
+        this.compileNanos = compileNanos;
+        this.logger = logger;
+    }
+
+    /**
+     * Starts warming up the given catalog in the background.
+     *
+     * @param plugin       the plugin, used to detect reloads and publish readiness
+     * @param catalog      the freshly compiled catalog
+     * @param compileNanos time spent compiling the catalog, included in the timing log
+     * @param logger       logger for the timing report
+     */
+    static void start(CustomDrops plugin, HeadCatalog catalog, long compileNanos, Logger logger) {
+        Thread.ofPlatform()
+                .daemon()
+                .name("NerdNuCustomDrops-warmup-" + catalog.version())
+                .start(new HeadCatalogWarmUp(plugin, catalog, compileNanos, logger));
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        long[] phaseNanos = new long[3];
+        int failed = 0;
+
+        for (HeadRule rule : catalog.rules()) {
+            if (plugin.getCatalog() != catalog) {
+                logger.info("Head catalog warm-up for version {} stopped: catalog was reloaded.", catalog.version());
+                return;
+            }
+            try {
+                MobHeadFactory.prebuild(rule, phaseNanos);
+            } catch (RuntimeException e) {
+                failed++;
+                logger.warn("Failed to prebuild head {}: {}", rule, e.toString());
+            }
+        }
+
+        plugin.markCatalogWarm(catalog);
+        logger.info("Warmed up {} heads in {} ms (compile {} ms, MiniMessage {} ms, item meta {} ms, profile/texture {} ms){}",
+                catalog.rules().size() - failed,
+                millis(System.nanoTime() - start),
+                millis(compileNanos),
+                millis(phaseNanos[0]),
+                millis(phaseNanos[1]),
+                millis(phaseNanos[2]),
+                failed > 0 ? ", " + failed + " failed" : "");
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+}
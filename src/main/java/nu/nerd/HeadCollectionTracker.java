@@ -0,0 +1,321 @@
+package nu.nerd;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks which heads each player has collected (the "head-dex").
+ * <p>
+ * Every catalog rule gets a stable ordinal the first time it is seen. Ordinals are
+ * appended to {@code collection/ordinals.txt} (one rule per line, line number = ordinal)
+ * and never reused, so renaming or removing rules never shifts anyone's collection.
+ * A player's collection is a {@code long[]} bitset indexed by ordinal, stored in the
+ * player's PDC, so it travels with the player data and costs a few bytes per player.
+ * <p>
+ * Server-wide figures (how many players collected each head, and who was first) are
+ * kept incrementally as bits are set, rather than computed by reading player files, and
+ * written to {@code collection/firsts.yml} in the background.
+ * <p>
+ * Main thread only.
+ */
+public final class HeadCollectionTracker implements Listener {
+
+    private static final NamespacedKey COLLECTION_KEY = new NamespacedKey("nerdnucustomdrops", "collection");
+    private static final long SAVE_INTERVAL_TICKS = 20L * 60;
+
+    private final CustomDrops plugin;
+    private final Logger logger;
+    private final Path ordinalsFile;
+    private final Path firstsFile;
+
+    // Stable ordinals; append-only
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> ruleIds = new ArrayList<>();
+
+    // Server-wide figures, indexed by stable ordinal
+    private int[] collectors = new int[0];
+    private UUID[] firstUuid = new UUID[0];
+    private String[] firstName = new String[0];
+    private long[] firstTime = new long[0];
+    private boolean dirty;
+
+    private HeadCollectionTracker(CustomDrops plugin, Logger logger) {
+        this.plugin = plugin;
+        this.logger = logger;
+        Path directory = plugin.getDataFolder().toPath().resolve("collection");
+        this.ordinalsFile = directory.resolve("ordinals.txt");
+        this.firstsFile = directory.resolve("firsts.yml");
+    }
+
+    /**
+     * Loads the ordinals and server-wide figures, and schedules periodic saving.
+     *
+     * @param plugin the plugin, for the data folder and scheduler
+     * @param logger logger for I/O errors
+     * @return the tracker
+     */
+    static HeadCollectionTracker load(CustomDrops plugin, Logger logger) {
+        HeadCollectionTracker tracker = new HeadCollectionTracker(plugin, logger);
+        tracker.loadOrdinals();
+        tracker.loadFirsts();
+        Bukkit.getScheduler().runTaskTimer(plugin, () -> tracker.save(false), SAVE_INTERVAL_TICKS, SAVE_INTERVAL_TICKS);
+        return tracker;
+    }
+
+    // ----------------------
+    // ORDINALS
+    // ----------------------
+
+    /**
+     * Gives every rule of a newly compiled catalog a stable ordinal, appending new rules
+     * to {@code ordinals.txt}.
+     *
+     * @param ruleIdsInCatalog the catalog's rule ids ({@code MOB} or {@code MOB/variant})
+     */
+    void assignOrdinals(List<String> ruleIdsInCatalog) {
+        List<String> added = null;
+        for (String ruleId : ruleIdsInCatalog) {
+            if (ordinals.containsKey(ruleId)) continue;
+            ordinal(ruleId);
+            if (added == null) added = new ArrayList<>();
+            added.add(ruleId);
+        }
+        if (added == null) return;
+
+        try {
+            Files.createDirectories(ordinalsFile.getParent());
+            Files.write(ordinalsFile, added, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.warn("Could not save head collection ordinals to {}", ordinalsFile, e);
+        }
+    }
+
+    /**
+     * Returns the stable ordinal of a rule, assigning the next one if it is new.
+     */
+    private int ordinal(String ruleId) {
+        Integer ordinal = ordinals.get(ruleId);
+        if (ordinal != null) return ordinal;
+
+        int next = ruleIds.size();
+        ordinals.put(ruleId, next);
+        ruleIds.add(ruleId);
+        if (next >= collectors.length) {
+            int capacity = Math.max(64, collectors.length * 2);
+            collectors = Arrays.copyOf(collectors, capacity);
+            firstUuid = Arrays.copyOf(firstUuid, capacity);
+            firstName = Arrays.copyOf(firstName, capacity);
+            firstTime = Arrays.copyOf(firstTime, capacity);
+        }
+        return next;
+    }
+
+    // ----------------------
+    // COLLECTING
+    // ----------------------
+
+    /**
+     * Adds a head to a player's collection, if it is a catalog head they do not have yet.
+     *
+     * @param player the collecting player
+     * @param head   the head dropped for or picked up by the player
+     * @return {@code true} if the head was new to the player's collection
+     */
+    boolean collect(Player player, ItemStack head) {
+        String ruleId = MobHeadFactory.ruleId(head);
+        if (ruleId == null) return false;
+        Integer ordinal = ordinals.get(ruleId);
+        if (ordinal == null) return false;
+
+        long[] bits = player.getPersistentDataContainer().get(COLLECTION_KEY, PersistentDataType.LONG_ARRAY);
+        int word = ordinal >>> 6;
+        long mask = 1L << ordinal;
+        if (bits != null && word < bits.length && (bits[word] & mask) != 0) return false;
+
+        if (bits == null || word >= bits.length) bits = Arrays.copyOf(bits != null ? bits : new long[0], word + 1);
+        bits[word] |= mask;
+        player.getPersistentDataContainer().set(COLLECTION_KEY, PersistentDataType.LONG_ARRAY, bits);
+
+        collectors[ordinal]++;
+        if (firstUuid[ordinal] == null) {
+            firstUuid[ordinal] = player.getUniqueId();
+            firstName[ordinal] = player.getName();
+            firstTime[ordinal] = System.currentTimeMillis();
+            player.sendMessage(Component.text("You are the first to collect the " + ruleId + " head!", NamedTextColor.GOLD));
+        }
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Adds picked-up catalog heads to the player's collection.
+     *
+     * @param event the pickup event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickup(EntityPickupItemEvent event) {
+        if (!(event.getEntity() instanceof Player player)) return;
+        ItemStack item = event.getItem().getItemStack();
+        if (!MobHeadFactory.isCustomHead(item)) return;
+        collect(player, item);
+    }
+
+    // ----------------------
+    // QUERIES
+    // ----------------------
+
+    /**
+     * Checks whether a player has collected a rule's head.
+     *
+     * @param bits   the player's collection, from {@link #collection}
+     * @param ruleId the rule id
+     * @return {@code true} if the head is in the collection
+     */
+    public boolean has(long[] bits, String ruleId) {
+        Integer ordinal = ordinals.get(ruleId);
+        if (ordinal == null) return false;
+        int word = ordinal >>> 6;
+        return word < bits.length && (bits[word] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Returns a player's collection bitset.
+     *
+     * @param player the player
+     * @return the bitset, empty if the player has collected nothing
+     */
+    public long[] collection(Player player) {
+        long[] bits = player.getPersistentDataContainer().get(COLLECTION_KEY, PersistentDataType.LONG_ARRAY);
+        return bits != null ? bits : new long[0];
+    }
+
+    /**
+     * Returns the rules a player was the first on the server to collect.
+     *
+     * @param playerId the player's UUID
+     * @return the rule ids, in ordinal order
+     */
+    public List<String> firsts(UUID playerId) {
+        List<String> firsts = new ArrayList<>();
+        for (int ordinal = 0; ordinal < ruleIds.size(); ordinal++) {
+            if (playerId.equals(firstUuid[ordinal])) firsts.add(ruleIds.get(ordinal));
+        }
+        return firsts;
+    }
+
+    /**
+     * Returns how many players have collected a rule's head.
+     *
+     * @param ruleId the rule id
+     * @return the number of collectors
+     */
+    public int collectors(String ruleId) {
+        Integer ordinal = ordinals.get(ruleId);
+        return ordinal != null ? collectors[ordinal] : 0;
+    }
+
+    /**
+     * Returns the name of the first player to collect a rule's head.
+     *
+     * @param ruleId the rule id
+     * @return the player's name, or {@code null} if nobody has collected it yet
+     */
+    public @Nullable String firstCollector(String ruleId) {
+        Integer ordinal = ordinals.get(ruleId);
+        return ordinal != null ? firstName[ordinal] : null;
+    }
+
+    // ----------------------
+    // PERSISTENCE
+    // ----------------------
+
+    private void loadOrdinals() {
+        if (!Files.exists(ordinalsFile)) return;
+        try {
+            for (String line : Files.readAllLines(ordinalsFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) ordinal(line.strip());
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read head collection ordinals from {}", ordinalsFile, e);
+        }
+    }
+
+    private void loadFirsts() {
+        if (!Files.exists(firstsFile)) return;
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(firstsFile.toFile());
+        for (String ruleId : yaml.getKeys(false)) {
+            ConfigurationSection section = yaml.getConfigurationSection(ruleId);
+            if (section == null || !ordinals.containsKey(ruleId)) continue;
+            int ordinal = ordinals.get(ruleId);
+            collectors[ordinal] = section.getInt("collectors");
+            String uuid = section.getString("first-uuid");
+            if (uuid != null) {
+                try {
+                    firstUuid[ordinal] = UUID.fromString(uuid);
+                    firstName[ordinal] = section.getString("first-name", "?");
+                    firstTime[ordinal] = section.getLong("first-time");
+                } catch (IllegalArgumentException ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Writes the server-wide figures if they changed. The YAML is rendered on the main
+     * thread (it is small) and written asynchronously unless {@code sync} is set.
+     *
+     * @param sync whether to write on the calling thread, e.g. while disabling
+     */
+    void save(boolean sync) {
+        if (!dirty) return;
+        dirty = false;
+
+        YamlConfiguration yaml = new YamlConfiguration();
+        for (int ordinal = 0; ordinal < ruleIds.size(); ordinal++) {
+            if (collectors[ordinal] == 0) continue;
+            ConfigurationSection section = yaml.createSection(ruleIds.get(ordinal));
+            section.set("collectors", collectors[ordinal]);
+            if (firstUuid[ordinal] != null) {
+                section.set("first-uuid", firstUuid[ordinal].toString());
+                section.set("first-name", firstName[ordinal]);
+                section.set("first-time", firstTime[ordinal]);
+            }
+        }
+        String contents = yaml.saveToString();
+
+        Runnable write = () -> {
+            try {
+                Files.createDirectories(firstsFile.getParent());
+                Files.writeString(firstsFile, contents, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                logger.warn("Could not save head collection stats to {}", firstsFile, e);
+            }
+        };
+        if (sync) write.run();
+        else Bukkit.getScheduler().runTaskAsynchronously(plugin, write);
+    }
+}
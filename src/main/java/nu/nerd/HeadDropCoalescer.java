@@ -0,0 +1,85 @@
+package nu.nerd;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.Location;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects head drops made during a tick and spawns them together at the end of it.
+ * <p>
+ * A wither, TNT chain or sweeping-edge farm can kill dozens of mobs in one tick. Instead
+ * of spawning one item entity per head immediately, drops are buffered and flushed on
+ * {@link ServerTickEndEvent}. While flushing, identical heads dropped close to each other
+ * are merged into one stacked ItemStack, so a mass kill spawns far fewer item entities.
+ * <p>
+ * Main thread only.
+ */
+public class HeadDropCoalescer implements Listener {
+
+    /** Heads dropped within this distance (in blocks) of each other may be merged */
+    private static final double MERGE_RADIUS = 2.0;
+    private static final double MERGE_RADIUS_SQUARED = MERGE_RADIUS * MERGE_RADIUS;
+
+    private final List<Location> locations = new ArrayList<>();
+    private final List<ItemStack> items = new ArrayList<>();
+
+    /**
+     * Queues a head to be dropped naturally at the end of the current tick.
+     *
+     * @param location where to drop the head
+     * @param head     the head to drop
+     */
+    public void drop(Location location, ItemStack head) {
+        locations.add(location);
+        items.add(head);
+    }
+
+    /**
+     * Flushes the buffer once the tick's events have all been processed.
+     *
+     * @param event the tick end event
+     */
+    @EventHandler
+    public void onTickEnd(ServerTickEndEvent event) {
+        if (!items.isEmpty()) flush();
+    }
+
+    /**
+     * Merges and spawns all buffered drops. Also called on disable so that no
+     * pending head is lost.
+     */
+    public void flush() {
+        int size = items.size();
+        for (int i = 0; i < size; i++) {
+            ItemStack item = items.get(i);
+            if (item == null) continue;
+            Location location = locations.get(i);
+
+            // Absorb identical heads dropped nearby into this stack
+            int maxStack = item.getMaxStackSize();
+            for (int j = i + 1; j < size && item.getAmount() < maxStack; j++) {
+                ItemStack other = items.get(j);
+                if (other == null || other.getType() != item.getType()) continue;
+
+                Location otherLocation = locations.get(j);
+                if (otherLocation.getWorld() != location.getWorld()
+                        || otherLocation.distanceSquared(location) > MERGE_RADIUS_SQUARED
+                        || item.getAmount() + other.getAmount() > maxStack
+                        || !other.isSimilar(item)) continue;
+
+                item.setAmount(item.getAmount() + other.getAmount());
+                items.set(j, null);
+            }
+
+            location.getWorld().dropItemNaturally(location, item);
+        }
+
+        locations.clear();
+        items.clear();
+    }
+}
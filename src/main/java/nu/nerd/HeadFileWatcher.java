@@ -0,0 +1,118 @@
+package nu.nerd;
+
+import nu.nerd.catalog.HeadFiles;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the {@code heads/} directory and applies edited head files to the live catalog.
+ * <p>
+ * Runs on its own daemon thread. Changes are collected until the directory has been quiet
+ * for a short moment (editors often write a file in several steps), then only the changed
+ * files are parsed, off the main thread. The result is handed to the main thread, which
+ * compiles a new catalog that reuses every unchanged rule. A file that fails to parse keeps
+ * its previous version.
+ */
+final class HeadFileWatcher implements Runnable {
+
+    /** How long the directory must be quiet before changes are applied */
+    private static final long QUIET_MILLIS = 500;
+
+    private final CustomDrops plugin;
+    private final Path directory;
+    private final WatchService watchService;
+    private final Logger logger;
+
+    private HeadFileWatcher(CustomDrops plugin, Path directory, WatchService watchService, Logger logger) {
+        this.plugin = plugin;
+        this.directory = directory;
+        this.watchService = watchService;
+        this.logger = logger;
+    }
+
+    /**
+     * Starts watching the given directory.
+     *
+     * @param plugin    the plugin that receives the changes
+     * @param directory the heads directory; must exist
+     * @param logger    logger for parse failures
+     * @return the watch service; close it to stop watching
+     * @throws IOException if the directory cannot be watched
+     */
+    static WatchService start(CustomDrops plugin, Path directory, Logger logger) throws IOException {
+        WatchService watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        Thread.ofPlatform()
+                .daemon()
+                .name("NerdNuCustomDrops-heads-watcher")
+                .start(new HeadFileWatcher(plugin, directory, watchService, logger));
+        return watchService;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new HashSet<>();
+                collect(watchService.take(), changed);
+
+                // Debounce: keep collecting until nothing changes for QUIET_MILLIS
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changed);
+                }
+                apply(changed);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Plugin disabled
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path name && HeadFiles.dropKey(name) != null) {
+                changed.add(directory.resolve(name));
+            }
+        }
+        key.reset();
+    }
+
+    private void apply(Set<Path> changed) {
+        Map<String, ConfigurationSection> updated = new HashMap<>();
+        Set<String> removed = new HashSet<>();
+
+        for (Path file : changed) {
+            String dropKey = HeadFiles.dropKey(file);
+            if (!Files.exists(file)) {
+                removed.add(dropKey);
+                continue;
+            }
+            try {
+                updated.put(dropKey, HeadFiles.load(file));
+                removed.remove(dropKey);
+            } catch (IOException | InvalidConfigurationException e) {
+                logger.warn("Keeping previous version of head file {}: {}", file.getFileName(), e.getMessage());
+            }
+        }
+
+        if ((updated.isEmpty() && removed.isEmpty()) || !plugin.isEnabled()) return;
+        Bukkit.getScheduler().runTask(plugin, () -> plugin.applyHeadFileChanges(updated, removed));
+    }
+}
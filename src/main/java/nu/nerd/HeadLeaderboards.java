@@ -0,0 +1,252 @@
+package nu.nerd;
+
+import nu.nerd.catalog.HeadRule;
+import nu.nerd.utils.TopN;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.temporal.IsoFields;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Head leaderboards: heads earned per player, heads dropped per mob, and the rarest heads
+ * dropped this week.
+ * <p>
+ * Counters are {@link LongAdder}s in concurrent maps, so a drop never takes a lock and
+ * the background snapshot can read them at any time. The top lists are bounded heaps
+ * updated on every drop, so {@code /mobhead top} only copies at most {@link #SIZE}
+ * entries. Counters are written to {@code leaderboards.yml} every few minutes by an
+ * async task, and the top lists are rebuilt from them on startup.
+ * <p>
+ * {@link #recordDrop} and the top lists are main thread only.
+ */
+public final class HeadLeaderboards {
+
+    /** Entries kept per leaderboard */
+    public static final int SIZE = 10;
+
+    private static final long SNAPSHOT_INTERVAL_TICKS = 20L * 60 * 5;
+
+    private final CustomDrops plugin;
+    private final Logger logger;
+    private final Path file;
+
+    private final Map<UUID, LongAdder> perPlayer = new ConcurrentHashMap<>();
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> perMob = new ConcurrentHashMap<>();
+    // Rarest chance each head dropped at this week, as "one in N", and who got it
+    private final Map<String, Long> weekRarity = new ConcurrentHashMap<>();
+    private final Map<String, String> weekRarityBy = new ConcurrentHashMap<>();
+    private volatile int week;
+    // The timer and onDisable may both snapshot; only one may write the temporary file
+    private final Object snapshotLock = new Object();
+
+    private final TopN<UUID> topPlayers = new TopN<>(SIZE);
+    private final TopN<String> topMobs = new TopN<>(SIZE);
+    private final TopN<String> topRarest = new TopN<>(SIZE);
+
+    private HeadLeaderboards(CustomDrops plugin, Logger logger) {
+        this.plugin = plugin;
+        this.logger = logger;
+        this.file = plugin.getDataFolder().toPath().resolve("leaderboards.yml");
+        this.week = currentWeek();
+    }
+
+    /**
+     * Loads the last snapshot and schedules periodic snapshots.
+     *
+     * @param plugin the plugin, for the data folder and scheduler
+     * @param logger logger for I/O errors
+     * @return the leaderboards
+     */
+    static HeadLeaderboards load(CustomDrops plugin, Logger logger) {
+        HeadLeaderboards leaderboards = new HeadLeaderboards(plugin, logger);
+        leaderboards.loadSnapshot();
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, leaderboards::snapshot,
+                SNAPSHOT_INTERVAL_TICKS, SNAPSHOT_INTERVAL_TICKS);
+        return leaderboards;
+    }
+
+    /**
+     * Counts a head dropped for a player kill.
+     *
+     * @param killer the player who earned the head
+     * @param rule   the head's rule
+     * @param chance the final chance the head dropped at
+     */
+    void recordDrop(Player killer, HeadRule rule, double chance) {
+        rollWeek();
+
+        UUID playerId = killer.getUniqueId();
+        LongAdder playerCount = perPlayer.computeIfAbsent(playerId, id -> new LongAdder());
+        playerCount.increment();
+        names.put(playerId, killer.getName());
+        topPlayers.offer(playerId, playerCount.sum());
+
+        LongAdder mobCount = perMob.computeIfAbsent(rule.dropKey(), key -> new LongAdder());
+        mobCount.increment();
+        topMobs.offer(rule.dropKey(), mobCount.sum());
+
+        if (chance > 0) {
+            long oneIn = Math.max(1, Math.round(1 / chance));
+            String ruleId = rule.toString();
+            Long best = weekRarity.get(ruleId);
+            if (best == null || oneIn > best) {
+                weekRarity.put(ruleId, oneIn);
+                weekRarityBy.put(ruleId, killer.getName());
+                topRarest.offer(ruleId, oneIn);
+            }
+        }
+    }
+
+    /**
+     * @return players with the most heads, most first
+     */
+    public List<TopN.Entry<UUID>> topPlayers() {
+        return topPlayers.sorted();
+    }
+
+    /**
+     * @return mobs whose heads dropped most, most first
+     */
+    public List<TopN.Entry<String>> topMobs() {
+        return topMobs.sorted();
+    }
+
+    /**
+     * @return heads dropped this week by rarity, as "one in N" chances, rarest first
+     */
+    public List<TopN.Entry<String>> rarestThisWeek() {
+        rollWeek();
+        return topRarest.sorted();
+    }
+
+    /**
+     * @param playerId a player from {@link #topPlayers}
+     * @return the player's last known name
+     */
+    public String name(UUID playerId) {
+        return names.getOrDefault(playerId, playerId.toString());
+    }
+
+    /**
+     * @param ruleId a head from {@link #rarestThisWeek}
+     * @return the player who got it at its rarest chance
+     */
+    public String rarestBy(String ruleId) {
+        return weekRarityBy.getOrDefault(ruleId, "?");
+    }
+
+    /**
+     * Clears the weekly list when a new ISO week starts.
+     */
+    private void rollWeek() {
+        int now = currentWeek();
+        if (now == week) return;
+        week = now;
+        weekRarity.clear();
+        weekRarityBy.clear();
+        topRarest.clear();
+    }
+
+    private static int currentWeek() {
+        LocalDate today = LocalDate.now();
+        return today.get(IsoFields.WEEK_BASED_YEAR) * 100 + today.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+    }
+
+    // ----------------------
+    // PERSISTENCE
+    // ----------------------
+
+    /**
+     * Writes all counters to {@code leaderboards.yml}. Reads only concurrent maps and
+     * adders, so it runs off the main thread; also called on disable. Snapshots run one
+     * at a time, so the file on disk always holds the newest counts written.
+     */
+    void snapshot() {
+        synchronized (snapshotLock) {
+            writeSnapshot();
+        }
+    }
+
+    private void writeSnapshot() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.set("week", week);
+        perPlayer.forEach((id, count) -> {
+            yaml.set("players." + id + ".name", names.get(id));
+            yaml.set("players." + id + ".heads", count.sum());
+        });
+        perMob.forEach((mob, count) -> yaml.set("mobs." + mob, count.sum()));
+        weekRarity.forEach((ruleId, oneIn) -> {
+            String key = "week-rarest." + ruleId;
+            yaml.set(key + ".one-in", oneIn);
+            yaml.set(key + ".player", weekRarityBy.get(ruleId));
+        });
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(temp, yaml.saveToString(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not save head leaderboards to {}", file, e);
+        }
+    }
+
+    private void loadSnapshot() {
+        if (!Files.exists(file)) return;
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file.toFile());
+
+        ConfigurationSection players = yaml.getConfigurationSection("players");
+        if (players != null) {
+            for (String id : players.getKeys(false)) {
+                UUID playerId;
+                try {
+                    playerId = UUID.fromString(id);
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                long heads = players.getLong(id + ".heads");
+                LongAdder count = new LongAdder();
+                count.add(heads);
+                perPlayer.put(playerId, count);
+                names.put(playerId, players.getString(id + ".name", id));
+                topPlayers.offer(playerId, heads);
+            }
+        }
+
+        ConfigurationSection mobs = yaml.getConfigurationSection("mobs");
+        if (mobs != null) {
+            for (String mob : mobs.getKeys(false)) {
+                long drops = mobs.getLong(mob);
+                LongAdder count = new LongAdder();
+                count.add(drops);
+                perMob.put(mob, count);
+                topMobs.offer(mob, drops);
+            }
+        }
+
+        ConfigurationSection rarest = yaml.getConfigurationSection("week-rarest");
+        if (rarest != null && yaml.getInt("week") == week) {
+            for (String ruleId : rarest.getKeys(false)) {
+                long oneIn = rarest.getLong(ruleId + ".one-in");
+                weekRarity.put(ruleId, oneIn);
+                weekRarityBy.put(ruleId, rarest.getString(ruleId + ".player", "?"));
+                topRarest.offer(ruleId, oneIn);
+            }
+        }
+    }
+}
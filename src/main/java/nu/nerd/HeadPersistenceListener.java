@@ -5,6 +5,7 @@ import com.destroystokyo.paper.profile.ProfileProperty;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import nu.nerd.jfr.SkullPersistenceEvent;
 import nu.nerd.utils.MobHeadUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -12,10 +13,15 @@ import org.bukkit.NamespacedKey;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.Skull;
+import org.bukkit.event.Event;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import io.papermc.paper.event.block.BlockBreakBlockEvent;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.SkullMeta;
@@ -26,7 +32,9 @@ import org.slf4j.Logger;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -40,6 +48,8 @@ import java.util.stream.Stream;
  *     <li>Persisting custom player textures through {@link PlayerProfile} and PDC.</li>
  *     <li>Ensuring the "[Certified Authentic]" lore line is always present exactly once.</li>
  *     <li>Dropping the correct ItemStack on head break while preventing vanilla drops.</li>
+ *     <li>Restoring heads destroyed by explosions, pistons, and flowing liquids.</li>
+ *     <li>Carrying head serials between item and block for {@link HeadSerialTracker}.</li>
  * </ul>
  */
 public class HeadPersistenceListener implements Listener {
@@ -49,6 +59,7 @@ public class HeadPersistenceListener implements Listener {
 
     /** Standard lore line for certified heads */
     private static final Component PLAYER_HEAD_LORE = MINI.deserialize("[Certified Authentic]");
+    private static final String PLAYER_HEAD_LORE_PLAIN = PLAIN.serialize(PLAYER_HEAD_LORE);
 
     /** Delimiter used to serialize multiple lore lines into a single string */
     private static final String LORE_DELIM = "\u001F"; // Unit Separator
@@ -62,6 +73,9 @@ public class HeadPersistenceListener implements Listener {
     private final NamespacedKey customHeadKey;
     private final NamespacedKey ownerKey;
 
+    /** Custom heads taken out of explosions that have not reached MONITOR yet; main thread only */
+    private final Map<Event, List<Block>> heldHeads = new IdentityHashMap<>();
+
     private final boolean debug;
     private final Logger logger;
 
@@ -92,7 +106,7 @@ public class HeadPersistenceListener implements Listener {
      *
      * @param event the block place event
      */
-    @EventHandler
+    @EventHandler(ignoreCancelled = true)
     public void onHeadPlace(BlockPlaceEvent event) {
         ItemStack item = event.getItemInHand();
         if (!isSkullType(item.getType())) return;
@@ -101,9 +115,13 @@ public class HeadPersistenceListener implements Listener {
         BlockState state = event.getBlockPlaced().getState();
         if (!(state instanceof Skull skull)) return;
 
+        // The only meta copy made for this event; everything below reads from it
         ItemMeta meta = item.getItemMeta();
         if (meta == null) return;
 
+        SkullPersistenceEvent persistence = new SkullPersistenceEvent();
+        persistence.begin();
+
         PersistentDataContainer container = skull.getPersistentDataContainer();
 
         // Store material
@@ -127,10 +145,9 @@ public class HeadPersistenceListener implements Listener {
                 // Mark the flag if the lore already includes the certified line
                 List<Component> lore = skullMeta.lore();
                 if (lore != null && !lore.isEmpty()) {
-                    final String targetPlain = PLAIN.serialize(PLAYER_HEAD_LORE);
                     boolean hasCertified = lore.stream()
                             .map(PLAIN::serialize)
-                            .anyMatch(s -> s.equals(targetPlain));
+                            .anyMatch(s -> s.equals(PLAYER_HEAD_LORE_PLAIN));
                     if (hasCertified) {
                         skullMeta.getPersistentDataContainer().set(certifiedFlagKey, PersistentDataType.BYTE, (byte) 1);
                     }
@@ -144,7 +161,36 @@ public class HeadPersistenceListener implements Listener {
         // Store the UUID of the player who placed this head
         container.set(ownerKey, PersistentDataType.STRING, event.getPlayer().getUniqueId().toString());
 
+        // Keep the catalog rule, so whoever picks the head up later can collect it
+        String ruleId = meta.getPersistentDataContainer().get(MobHeadFactory.HEAD_RULE_KEY, PersistentDataType.STRING);
+        if (ruleId != null) container.set(MobHeadFactory.HEAD_RULE_KEY, PersistentDataType.STRING, ruleId);
+
+        // Carry the serial over; the placement itself is recorded in onHeadPlaced
+        HeadSerialTracker.carry(meta.getPersistentDataContainer(), container);
+
         skull.update(true);
+
+        persistence.end();
+        if (persistence.shouldCommit()) {
+            persistence.action = "place";
+            persistence.material = item.getType().name();
+            persistence.success = true;
+            persistence.commit();
+        }
+    }
+
+    /**
+     * Records a custom head placement for {@link HeadSerialTracker} once every other
+     * plugin has had the chance to cancel it.
+     *
+     * @param event the block place event
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onHeadPlaced(BlockPlaceEvent event) {
+        ItemStack item = event.getItemInHand();
+        if (!isSkullType(item.getType())) return;
+        if (!MobHeadFactory.isCustomHead(item)) return;
+        HeadSerialTracker.placed(item.getPersistentDataContainer(), event.getPlayer(), event.getBlockPlaced());
     }
 
     /**
@@ -179,8 +225,163 @@ public class HeadPersistenceListener implements Listener {
             }
         }
 
+        ItemStack head = restoreHead(block.getType(), container);
+        if (head == null) return;
+
+        event.setDropItems(false);
+        block.getWorld().dropItemNaturally(block.getLocation(), head);
+    }
+
+    /**
+     * Takes custom heads out of an {@link EntityExplodeEvent} (creepers, TNT, withers, ...),
+     * so vanilla never drops a plain head for them.
+     *
+     * @param event the entity explode event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        holdCustomHeads(event, event.blockList());
+    }
+
+    /**
+     * Takes custom heads out of a {@link BlockExplodeEvent} (beds, respawn anchors, ...).
+     *
+     * @param event the block explode event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        holdCustomHeads(event, event.blockList());
+    }
+
+    /**
+     * Breaks the custom heads held back from an entity explosion, once no plugin can
+     * cancel it any more.
+     *
+     * @param event the entity explode event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityExploded(EntityExplodeEvent event) {
+        breakHeldHeads(event, event.isCancelled());
+    }
+
+    /**
+     * Breaks the custom heads held back from a block explosion, once no plugin can
+     * cancel it any more.
+     *
+     * @param event the block explode event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onBlockExploded(BlockExplodeEvent event) {
+        breakHeldHeads(event, event.isCancelled());
+    }
+
+    /**
+     * Handles {@link BlockBreakBlockEvent}, which Paper fires when a piston or a
+     * flowing liquid destroys a block. The vanilla skull drop is replaced by the
+     * restored custom head.
+     *
+     * @param event the block break block event
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void onBlockBreakBlock(BlockBreakBlockEvent event) {
+        Block block = event.getBlock();
+        if (!isSkullType(block.getType())) return;
+
+        if (!(block.getState(false) instanceof Skull skull)) return;
+        PersistentDataContainer container = skull.getPersistentDataContainer();
+        if (!container.has(customHeadKey, PersistentDataType.BYTE)) return;
+
+        ItemStack head = restoreHead(block.getType(), container);
+        if (head == null) return;
+
+        List<ItemStack> drops = event.getDrops();
+        drops.removeIf(drop -> isSkullType(drop.getType()));
+        drops.add(head);
+        if (debug) logger.info("[DEBUG] Restored custom head broken by {} at {}", event.getSource().getType(), block.getLocation());
+    }
+
+    /**
+     * Removes every custom head from an explosion's block list in a single pass and holds
+     * it until the explosion's MONITOR handler, which breaks it only if the explosion went
+     * ahead. Nothing is changed in the world here, so a plugin cancelling the explosion
+     * afterwards cannot leave a restored head next to the intact skull.
+     * <p>
+     * Skull blocks are filtered by material first so that only actual heads pay for a
+     * block state snapshot.
+     *
+     * @param event  the explosion event, as the key of its held heads
+     * @param blocks the mutable block list of the explosion event
+     */
+    private void holdCustomHeads(Event event, List<Block> blocks) {
+        List<Block> held = new ArrayList<>(0);
+        blocks.removeIf(block -> {
+            if (!isSkullType(block.getType())) return false;
+            if (!(block.getState(false) instanceof Skull skull)) return false;
+            if (!skull.getPersistentDataContainer().has(customHeadKey, PersistentDataType.BYTE)) return false;
+            held.add(block);
+            return true;
+        });
+        if (!held.isEmpty()) heldHeads.put(event, held);
+    }
+
+    /**
+     * Clears the custom heads held back from an explosion and drops them restored, unless
+     * the explosion was cancelled.
+     *
+     * @param event     the explosion event
+     * @param cancelled whether the explosion was cancelled, leaving the heads in place
+     */
+    private void breakHeldHeads(Event event, boolean cancelled) {
+        List<Block> held = heldHeads.remove(event);
+        if (held == null || cancelled) return;
+
+        int restored = 0;
+        for (Block block : held) {
+            if (!(block.getState(false) instanceof Skull skull)) continue;
+            ItemStack head = restoreHead(block.getType(), skull.getPersistentDataContainer());
+            if (head == null) continue;
+
+            block.setType(Material.AIR, false);
+            block.getWorld().dropItemNaturally(block.getLocation(), head);
+            restored++;
+        }
+        if (debug) logger.info("[DEBUG] Restored {} custom head(s) from explosion", restored);
+    }
+
+    /**
+     * Rebuilds a custom head ItemStack from the data stored in a skull block's PDC.
+     * <p>
+     * Restores the display name, lore, and texture. Ensures the "[Certified Authentic]"
+     * lore is present exactly once.
+     *
+     * @param blockType the material of the skull block
+     * @param container the persistent data container of the skull block
+     * @return the restored head, or {@code null} if no meta could be created
+     */
+    private ItemStack restoreHead(Material blockType, PersistentDataContainer container) {
+        SkullPersistenceEvent persistence = new SkullPersistenceEvent();
+        persistence.begin();
+        ItemStack head = rebuildHead(blockType, container);
+        persistence.end();
+        if (persistence.shouldCommit()) {
+            persistence.action = "restore";
+            persistence.material = blockType.name();
+            persistence.success = head != null;
+            persistence.commit();
+        }
+        return head;
+    }
+
+    /**
+     * Does the work of {@link #restoreHead}.
+     *
+     * @param blockType the material of the skull block
+     * @param container the persistent data container of the skull block
+     * @return the restored head, or {@code null} if no meta could be created
+     */
+    private ItemStack rebuildHead(Material blockType, PersistentDataContainer container) {
         // Determine head material to drop
-        Material dropMaterial = block.getType();
+        Material dropMaterial = toItemMaterial(blockType);
         String serializedMaterial = container.get(materialKey, PersistentDataType.STRING);
         if (serializedMaterial != null) {
             try {
@@ -190,8 +391,7 @@ public class HeadPersistenceListener implements Listener {
 
         ItemStack head = new ItemStack(dropMaterial);
         SkullMeta skullMeta = (SkullMeta) head.getItemMeta();
-        if (skullMeta == null) return;
-
+        if (skullMeta == null) return null;
 
         // Restore display name
         String serializedName = container.get(nameKey, PersistentDataType.STRING);
@@ -210,8 +410,7 @@ public class HeadPersistenceListener implements Listener {
         if (lore == null) lore = new ArrayList<>();
 
         // Certified Authentic check
-        final String targetPlain = PLAIN.serialize(PLAYER_HEAD_LORE);
-        boolean hasPlain = lore.stream().map(PLAIN::serialize).anyMatch(s -> s.equals(targetPlain));
+        boolean hasPlain = lore.stream().map(PLAIN::serialize).anyMatch(s -> s.equals(PLAYER_HEAD_LORE_PLAIN));
         boolean hadFlag = container.has(certifiedFlagKey, PersistentDataType.BYTE);
 
         if (!hasPlain && !hadFlag) {
@@ -220,6 +419,15 @@ public class HeadPersistenceListener implements Listener {
         }
         skullMeta.lore(lore);
 
+        // Flag it like a freshly issued head, so placing it again is tracked
+        MobHeadFactory.markCustomHead(skullMeta);
+
+        String ruleId = container.get(MobHeadFactory.HEAD_RULE_KEY, PersistentDataType.STRING);
+        if (ruleId != null) skullMeta.getPersistentDataContainer().set(MobHeadFactory.HEAD_RULE_KEY, PersistentDataType.STRING, ruleId);
+
+        // Back in circulation: count it as issued again
+        HeadSerialTracker.restored(container, skullMeta.getPersistentDataContainer(), ruleId);
+
         // Only apply texture if this is a player head
         if (dropMaterial == Material.PLAYER_HEAD && container.has(textureKey, PersistentDataType.STRING)) {
             String texture = container.get(textureKey, PersistentDataType.STRING);
@@ -230,9 +438,7 @@ public class HeadPersistenceListener implements Listener {
         }
 
         head.setItemMeta(skullMeta);
-
-        event.setDropItems(false);
-        block.getWorld().dropItemNaturally(block.getLocation(), head);
+        return head;
     }
 
     /**
@@ -274,6 +480,26 @@ public class HeadPersistenceListener implements Listener {
         skullMeta.setPlayerProfile(profile);
     }
 
+    /**
+     * Maps a wall skull block material to its item form, so heads broken off a wall
+     * without a stored material still drop as a valid item.
+     *
+     * @param type the skull block material
+     * @return the matching item material
+     */
+    private Material toItemMaterial(Material type) {
+        return switch (type) {
+            case PLAYER_WALL_HEAD -> Material.PLAYER_HEAD;
+            case ZOMBIE_WALL_HEAD -> Material.ZOMBIE_HEAD;
+            case SKELETON_WALL_SKULL -> Material.SKELETON_SKULL;
+            case WITHER_SKELETON_WALL_SKULL -> Material.WITHER_SKELETON_SKULL;
+            case CREEPER_WALL_HEAD -> Material.CREEPER_HEAD;
+            case DRAGON_WALL_HEAD -> Material.DRAGON_HEAD;
+            case PIGLIN_WALL_HEAD -> Material.PIGLIN_HEAD;
+            default -> type;
+        };
+    }
+
     /**
      * Checks if a {@link Material} represents any type of Minecraft skull, including
      * player heads and all vanilla mob heads (zombie, skeleton, wither skeleton,
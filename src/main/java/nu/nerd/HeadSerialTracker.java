@@ -0,0 +1,601 @@
+package nu.nerd;
+
+import io.papermc.paper.persistence.PersistentDataContainerView;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import nu.nerd.utils.BloomFilter;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stamps the heads the plugin hands out with a 64-bit serial and watches for more heads
+ * being placed under a serial than were ever handed out, which only happens when items
+ * were duplicated.
+ * <p>
+ * A serial names a kind of head, not a single item: every head of a catalog rule (or
+ * every head of one player) gets the same serial, derived from the rule id, so heads
+ * keep stacking whether they were dropped, given, bought through the API or picked
+ * back up. The log counts the heads issued under each serial, including heads handed
+ * back when a placed head is broken, and the placements; a placement that takes the
+ * placements past the issued heads is reported. The price of stacking is that a single
+ * duplicated head goes unnoticed until more heads of its kind are placed than were
+ * ever issued, so this catches dupe farms rather than one-off copies.
+ * <p>
+ * Nothing is written to items unless tracking is enabled, so heads made with
+ * {@code head-serials.enabled: false} stay free of serials (and only stack with heads
+ * made the same way).
+ * <p>
+ * The main thread only queues records. A background thread appends them in batches
+ * to a log split into segments of {@code segment-records} lines
+ * ({@code serials/serials-<n>.log}), each with a Bloom filter of the serials written to
+ * it. The first placement of a serial since startup reads only the segments whose filter
+ * may hold it; the counts found are kept in a bounded in-memory index and updated as
+ * records arrive, so later placements read nothing. A segment's filter is saved when
+ * the next segment starts; the current segment's filter is rebuilt from its log on
+ * startup, so it never lags behind the log after a crash.
+ */
+public final class HeadSerialTracker implements Runnable {
+
+    static final NamespacedKey SERIAL_KEY = new NamespacedKey("nerdnucustomdrops", "head_serial");
+
+    private static final String DUPES_PERMISSION = "nerdnucustomdrops.mobhead.dupes";
+    /** Serials kept in the in-memory index */
+    private static final int INDEX_CAPACITY = 16_384;
+    /** Tokens in a PLACE line written before serials named kinds of heads; it has a generation */
+    private static final int LEGACY_PLACE_TOKENS = 9;
+
+    private static volatile @Nullable HeadSerialTracker active;
+
+    private sealed interface Record permits Issue, Placement {
+        String line();
+    }
+    private record Issue(long serial, int amount, String line) implements Record {}
+    private record Placement(long serial, String line) implements Record {}
+
+    private final CustomDrops plugin;
+    private final Logger logger;
+    private final Path directory;
+    private final long segmentRecords;
+    private final double falsePositiveRate;
+    private final BlockingQueue<Record> queue = new LinkedBlockingQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong placements = new AtomicLong();
+    private final AtomicLong logReads = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private volatile int segmentCount;
+
+    // Owned by the background thread
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, Ledger> ledgers = lru();
+    private Segment current;
+    private BufferedWriter writer;
+
+    /** A slice of the log and the filter of every serial written to it. */
+    private static final class Segment {
+        final int number;
+        final Path log;
+        final Path filterFile;
+        BloomFilter filter;
+        long records;
+
+        Segment(Path directory, int number) {
+            this.number = number;
+            this.log = directory.resolve("serials-" + number + ".log");
+            this.filterFile = directory.resolve("serials-" + number + ".filter");
+        }
+    }
+
+    /** What the log holds for a serial. */
+    private static final class Ledger {
+        /** Heads issued, including heads handed back from broken skulls */
+        long issued;
+        long placed;
+    }
+
+    private HeadSerialTracker(CustomDrops plugin, ConfigurationSection config, Logger logger) {
+        this.plugin = plugin;
+        this.logger = logger;
+        this.directory = plugin.getDataFolder().toPath().resolve("serials");
+        this.segmentRecords = Math.max(1000, config.getLong("segment-records", 100_000));
+        this.falsePositiveRate = Math.clamp(config.getDouble("false-positive-rate", 0.001), 1e-9, 0.5);
+        this.thread = Thread.ofPlatform().daemon().name("NerdNuCustomDrops-serials").unstarted(this);
+    }
+
+    /**
+     * Starts tracking serials, unless {@code head-serials.enabled} is false, in which case
+     * heads are not stamped either.
+     *
+     * @param plugin the plugin, for the data folder, config and duplicate notifications
+     * @param logger logger for duplicate reports and I/O errors
+     * @return the running tracker, or {@code null} if tracking is disabled
+     */
+    static @Nullable HeadSerialTracker start(CustomDrops plugin, Logger logger) {
+        ConfigurationSection config = plugin.getConfig().getConfigurationSection("head-serials");
+        if (config == null) config = plugin.getConfig().createSection("head-serials");
+        if (!config.getBoolean("enabled", true)) return null;
+
+        HeadSerialTracker tracker = new HeadSerialTracker(plugin, config, logger);
+        tracker.thread.start();
+        active = tracker;
+        return tracker;
+    }
+
+    /**
+     * Stops tracking: writes queued records and waits briefly for the background thread
+     * to finish.
+     */
+    void stop() {
+        if (active == this) active = null;
+        running = false;
+        // Not interrupted: an interrupt would close the log's file channel mid-write
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ----------------------
+    // STAMPING (any thread)
+    // ----------------------
+
+    /**
+     * Stamps a newly made head, or stack of heads, with the serial of its kind and records
+     * its issue. Does nothing while tracking is disabled.
+     *
+     * @param head   the head to stamp
+     * @param name   what the head is: the rule id, or {@link #playerHead} for player heads
+     * @param source why the head was made, e.g. {@code player kill} or {@code give}
+     */
+    static void stamp(ItemStack head, String name, String source) {
+        if (active == null) return;
+        long serial = serialFor(name);
+        head.editPersistentDataContainer(pdc -> pdc.set(SERIAL_KEY, PersistentDataType.LONG, serial));
+        recordIssue(serial, head.getAmount(), name, source);
+    }
+
+    /**
+     * @param playerName the player whose head it is
+     * @return the name player heads of that player are stamped under
+     */
+    static String playerHead(String playerName) {
+        return "player:" + playerName;
+    }
+
+    /**
+     * Returns the serial of a kind of head. Stable across restarts and servers, so heads of
+     * one kind always stack.
+     *
+     * @param name the rule id or player head name
+     * @return the serial, never 0
+     */
+    static long serialFor(String name) {
+        // 64-bit FNV-1a, finished with a SplitMix64 round to spread similar names apart
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        hash ^= hash >>> 31;
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static void recordIssue(long serial, int amount, String name, String source) {
+        HeadSerialTracker tracker = active;
+        if (tracker != null) {
+            tracker.issued.addAndGet(amount);
+            tracker.queue.add(new Issue(serial, amount, Instant.now() + " ISSUE " + hex(serial) + " " + amount
+                    + " " + name.replace(' ', '_') + " " + source.replace(' ', '_')));
+        }
+    }
+
+    /**
+     * Copies a stamped head's serial to the skull block it was placed as. Heads without a
+     * serial are ignored.
+     *
+     * @param item  PDC of the placed item
+     * @param block PDC of the skull block
+     */
+    static void carry(PersistentDataContainerView item, PersistentDataContainer block) {
+        Long serial = item.get(SERIAL_KEY, PersistentDataType.LONG);
+        if (serial == null) return;
+        block.set(SERIAL_KEY, PersistentDataType.LONG, serial);
+    }
+
+    /**
+     * Records that a stamped head was placed. Called once the place event can no longer
+     * be cancelled, so a placement some protection plugin refused is never logged.
+     *
+     * @param item   PDC of the placed item
+     * @param player the player who placed it
+     * @param placed the placed block, for the log
+     */
+    static void placed(PersistentDataContainerView item, Player player, Block placed) {
+        HeadSerialTracker tracker = active;
+        if (tracker == null) return;
+        Long serial = item.get(SERIAL_KEY, PersistentDataType.LONG);
+        if (serial == null) return;
+
+        tracker.placements.incrementAndGet();
+        tracker.queue.add(new Placement(serial, Instant.now() + " PLACE " + hex(serial)
+                + " " + player.getName() + " " + placed.getWorld().getName().replace(' ', '_')
+                + " " + placed.getX() + " " + placed.getY() + " " + placed.getZ()));
+    }
+
+    /**
+     * Stamps the head restored from a broken skull block and records it as issued again,
+     * so it can be placed once more. A catalog head gets its rule's serial, which also
+     * moves heads stamped by older versions onto it; other heads keep the block's serial.
+     * Does nothing while tracking is disabled.
+     *
+     * @param block  PDC of the skull block
+     * @param item   PDC of the restored head
+     * @param ruleId the head's rule id, or {@code null} if it has none
+     */
+    static void restored(PersistentDataContainer block, PersistentDataContainer item, @Nullable String ruleId) {
+        if (active == null) return;
+        Long blockSerial = block.get(SERIAL_KEY, PersistentDataType.LONG);
+        long serial;
+        if (ruleId != null) serial = serialFor(ruleId);
+        else if (blockSerial != null) serial = blockSerial;
+        else return;
+
+        item.set(SERIAL_KEY, PersistentDataType.LONG, serial);
+        recordIssue(serial, 1, ruleId != null ? ruleId : hex(serial), "restored");
+    }
+
+    // ----------------------
+    // STATS
+    // ----------------------
+
+    /** @return heads stamped since startup */
+    public long issued() {
+        return issued.get();
+    }
+
+    /** @return stamped heads placed since startup */
+    public long placements() {
+        return placements.get();
+    }
+
+    /** @return times a serial's counts were read from the log, since they were not in memory */
+    public long logReads() {
+        return logReads.get();
+    }
+
+    /** @return placements that took a serial past the heads issued under it */
+    public long duplicates() {
+        return duplicates.get();
+    }
+
+    /** @return log segments, including the one being written */
+    public int segments() {
+        return segmentCount;
+    }
+
+    // ----------------------
+    // BACKGROUND THREAD
+    // ----------------------
+
+    /**
+     * Opens the log segments, then writes queued records until {@link #stop} is called.
+     */
+    @Override
+    public void run() {
+        try {
+            Files.createDirectories(directory);
+            openSegments();
+            writer = openWriter(current);
+        } catch (IOException e) {
+            logger.warn("Head serial tracking disabled: could not open {}", directory, e);
+            if (active == this) active = null;
+            return;
+        }
+
+        try {
+            while (running || !queue.isEmpty()) {
+                Record record;
+                try {
+                    record = queue.poll(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    record = queue.poll();
+                }
+                if (record != null) {
+                    // Drain everything queued so far, then flush once for the whole batch
+                    do {
+                        handle(record);
+                    } while ((record = queue.poll()) != null);
+                    writer.flush();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Head serial tracking stopped: could not write {}", current.log, e);
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    private void handle(Record record) throws IOException {
+        if (record instanceof Issue issue) {
+            Ledger ledger = ledgers.get(issue.serial());
+            if (ledger != null) ledger.issued += issue.amount();
+            append(issue.serial(), issue.line());
+        } else if (record instanceof Placement placement) {
+            check(placement);
+            append(placement.serial(), placement.line());
+        }
+    }
+
+    /**
+     * Counts the placement and reports it if its serial now has more placements than heads
+     * issued. Serials with no issue on record (the log was deleted, or the head predates
+     * it) are not judged.
+     */
+    private void check(Placement placement) throws IOException {
+        Ledger ledger = ledgers.get(placement.serial());
+        if (ledger == null) {
+            ledger = mightContain(placement.serial()) ? read(placement.serial()) : new Ledger();
+            ledgers.put(placement.serial(), ledger);
+        }
+
+        ledger.placed++;
+        if (ledger.issued > 0 && ledger.placed > ledger.issued) reportDuplicate(placement.line(), ledger);
+    }
+
+    private void append(long serial, String line) throws IOException {
+        current.filter.put(serial);
+        writer.write(line);
+        writer.newLine();
+        if (++current.records >= segmentRecords) roll();
+    }
+
+    /**
+     * Closes the current segment, saves its filter, and starts the next one.
+     */
+    private void roll() throws IOException {
+        writer.close();
+        saveFilter(current);
+        current = new Segment(directory, current.number + 1);
+        current.filter = newFilter();
+        segments.add(current);
+        segmentCount = segments.size();
+        writer = openWriter(current);
+    }
+
+    private boolean mightContain(long serial) {
+        for (Segment segment : segments) {
+            if (segment.filter.mightContain(serial)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Counts a serial's issued heads and placements, reading only the segments whose
+     * filter may hold it.
+     */
+    private Ledger read(long serial) throws IOException {
+        logReads.incrementAndGet();
+        writer.flush();
+        String serialHex = hex(serial);
+        Ledger ledger = new Ledger();
+        for (Segment segment : segments) {
+            if (!segment.filter.mightContain(serial)) continue;
+            try (BufferedReader reader = Files.newBufferedReader(segment.log, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split(" ");
+                    if (fields.length < 3 || !fields[2].equals(serialHex)) continue;
+                    if (fields[1].equals("ISSUE")) {
+                        ledger.issued += fields.length >= 4 ? issuedAmount(fields[3]) : 1;
+                    } else if (fields[1].equals("PLACE")) {
+                        ledger.placed++;
+                        // Older logs did not record restored heads; a later generation implies one
+                        if (fields.length == LEGACY_PLACE_TOKENS && !fields[3].equals("0")) ledger.issued++;
+                    }
+                }
+            }
+        }
+        return ledger;
+    }
+
+    /** Reads an ISSUE line's amount; lines written before stacks were tracked count as one head. */
+    private static int issuedAmount(String field) {
+        try {
+            return Math.max(1, Integer.parseInt(field));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private void reportDuplicate(String line, Ledger ledger) {
+        duplicates.incrementAndGet();
+        logger.warn("Duplicate head placed: {} ({} placed, {} issued)", line, ledger.placed, ledger.issued);
+
+        String[] fields = line.split(" ");
+        Component message = Component.text("[Heads] Duplicate head " + fields[2] + " placed by " + fields[3]
+                + " at " + fields[4] + " " + fields[5] + "," + fields[6] + "," + fields[7], NamedTextColor.RED);
+        if (plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, () -> Bukkit.broadcast(message, DUPES_PERMISSION));
+        }
+    }
+
+    // ----------------------
+    // SEGMENTS
+    // ----------------------
+
+    /**
+     * Loads every segment's filter. Closed segments use their saved filter unless it is
+     * missing, unreadable or sized differently; the last segment is always rebuilt from
+     * its log, since its saved filter (if any) may be behind.
+     */
+    private void openSegments() throws IOException {
+        migrateSingleLog();
+        deleteLegacyFilters();
+
+        List<Integer> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "serials-*.log")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Integer.parseInt(name.substring("serials-".length(), name.length() - ".log".length())));
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+        numbers.sort(null);
+
+        for (int i = 0; i < numbers.size(); i++) {
+            Segment segment = new Segment(directory, numbers.get(i));
+            boolean last = i == numbers.size() - 1;
+            segment.filter = last ? null : loadFilter(segment);
+            if (segment.filter == null) {
+                rebuildFilter(segment);
+                if (!last) saveFilter(segment);
+            }
+            segments.add(segment);
+        }
+        if (segments.isEmpty()) {
+            Segment segment = new Segment(directory, 0);
+            segment.filter = newFilter();
+            segments.add(segment);
+        }
+        current = segments.get(segments.size() - 1);
+        segmentCount = segments.size();
+    }
+
+    /**
+     * Turns a log written before segments existed into the first segment.
+     */
+    private void migrateSingleLog() throws IOException {
+        Path single = directory.resolve("serials.log");
+        Path first = directory.resolve("serials-0.log");
+        if (!Files.exists(single) || Files.exists(first)) return;
+        Files.move(single, first);
+        logger.info("Moved {} to {}", single, first);
+    }
+
+    /**
+     * Deletes filters from versions that keyed placements by generation; they are rebuilt
+     * from the logs.
+     */
+    private void deleteLegacyFilters() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.bloom")) {
+            for (Path file : files) Files.deleteIfExists(file);
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return BloomFilter.create(segmentRecords, falsePositiveRate);
+    }
+
+    /**
+     * @return the segment's saved filter, or {@code null} if it has to be rebuilt
+     */
+    private @Nullable BloomFilter loadFilter(Segment segment) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment.filterFile)))) {
+            BloomFilter saved = BloomFilter.readFrom(in);
+            if (saved.sameShape(newFilter())) return saved;
+            logger.info("Head serial filter settings changed; rebuilding {}", segment.filterFile);
+        } catch (NoSuchFileException ignored) {
+            // Never saved, or deleted
+        } catch (IOException e) {
+            logger.warn("Could not read {}; rebuilding it from {}", segment.filterFile, segment.log, e);
+        }
+        return null;
+    }
+
+    /**
+     * Rebuilds a segment's filter from its log and counts its records.
+     */
+    private void rebuildFilter(Segment segment) throws IOException {
+        BloomFilter filter = newFilter();
+        long records = 0;
+        try (BufferedReader reader = Files.newBufferedReader(segment.log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                records++;
+                String[] fields = line.split(" ", 4);
+                if (fields.length < 3) continue;
+                try {
+                    filter.put(Long.parseUnsignedLong(fields[2], 16));
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+        segment.filter = filter;
+        segment.records = records;
+    }
+
+    private static BufferedWriter openWriter(Segment segment) throws IOException {
+        return Files.newBufferedWriter(segment.log, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Writes a segment's filter to a temporary file and moves it into place, so a crash
+     * mid-write never leaves a truncated filter behind.
+     */
+    private void saveFilter(Segment segment) {
+        Path temp = segment.filterFile.resolveSibling(segment.filterFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            segment.filter.writeTo(out);
+        } catch (IOException e) {
+            logger.warn("Could not save {}", segment.filterFile, e);
+            return;
+        }
+        try {
+            Files.move(temp, segment.filterFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not save {}", segment.filterFile, e);
+        }
+    }
+
+    private static <V> Map<Long, V> lru() {
+        return new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > INDEX_CAPACITY;
+            }
+        };
+    }
+
+    private static String hex(long serial) {
+        return String.format("%016x", serial);
+    }
+}
@@ -0,0 +1,331 @@
+package nu.nerd;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Measures the per-tick cost of this plugin's event handlers on a live server.
+ * <p>
+ * While a run is active, every registered handler of the plugin is swapped for a wrapper
+ * that records wall time and bytes allocated on the main thread around the real call.
+ * Totals are collected per tick on {@link ServerTickEndEvent}, and when the run ends the
+ * percentiles are sent to whoever started it and written as JSON to
+ * {@code plugins/NerdNuCustomDrops/profiles/}, so runs under comparable load can be diffed.
+ * Handlers are restored when the run ends; outside of a run nothing is wrapped.
+ * <p>
+ * Each handler's mean allocation per call is also checked against a budget from the
+ * {@code allocation-budgets} section, so a stray stream or string concatenation on a hot
+ * path shows up as an over-budget warning instead of a TPS drop.
+ * <p>
+ * Main thread only; asynchronous events pass through the wrappers unmeasured.
+ */
+public class ListenerProfiler implements Listener {
+
+    /** Default and maximum run length, in ticks */
+    public static final int DEFAULT_TICKS = 600;
+    public static final int MAX_TICKS = 72_000;
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final CustomDrops plugin;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final List<Profiled> wrapped = new ArrayList<>();
+    private final List<Profiled> finished = new ArrayList<>();
+    private CommandSender requester;
+    private long defaultBudget;
+    private Map<String, Object> budgets;
+    private boolean running;
+    private int recorded;
+
+    // Accumulators for the current tick
+    private long tickNanos;
+    private long tickBytes;
+    private int tickCalls;
+
+    // One entry per recorded tick
+    private long[] nanos;
+    private long[] bytes;
+    private long[] calls;
+    private double[] serverTickMillis;
+
+    /**
+     * Creates a profiler for the given plugin's handlers.
+     *
+     * @param plugin the plugin whose handlers are measured
+     */
+    public ListenerProfiler(CustomDrops plugin) {
+        this.plugin = plugin;
+    }
+
+    /** @return whether a run is in progress */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts a run.
+     *
+     * @param sender who receives the summary when the run ends
+     * @param ticks  number of ticks to record
+     * @return {@code false} if a run is already in progress
+     */
+    public boolean start(CommandSender sender, int ticks) {
+        if (running) return false;
+
+        requester = sender;
+        recorded = 0;
+        defaultBudget = plugin.getConfig().getLong("allocation-budgets.default", 4096);
+        ConfigurationSection budgetSection = plugin.getConfig().getConfigurationSection("allocation-budgets");
+        budgets = budgetSection != null ? budgetSection.getValues(false) : Map.of();
+        nanos = new long[ticks];
+        bytes = new long[ticks];
+        calls = new long[ticks];
+        serverTickMillis = new double[ticks];
+        resetTick();
+
+        for (HandlerList handlers : HandlerList.getHandlerLists()) {
+            for (RegisteredListener listener : handlers.getRegisteredListeners()) {
+                if (listener.getPlugin() != plugin || listener.getListener() == this) continue;
+                Profiled profiled = new Profiled(handlers, listener);
+                handlers.unregister(listener);
+                handlers.register(profiled);
+                wrapped.add(profiled);
+            }
+        }
+        running = true;
+        return true;
+    }
+
+    /**
+     * Ends the current run early, reporting the ticks recorded so far.
+     */
+    public void stop() {
+        if (!running) return;
+        running = false;
+
+        for (Profiled profiled : wrapped) {
+            profiled.handlers.unregister(profiled);
+            profiled.handlers.register(profiled.delegate);
+        }
+        finished.addAll(wrapped);
+        wrapped.clear();
+        report();
+        finished.clear();
+    }
+
+    /**
+     * Closes the per-tick accumulators and ends the run once enough ticks are recorded.
+     *
+     * @param event the tick end event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        if (!running) return;
+
+        nanos[recorded] = tickNanos;
+        bytes[recorded] = tickBytes;
+        calls[recorded] = tickCalls;
+        serverTickMillis[recorded] = event.getTickDuration();
+        recorded++;
+        resetTick();
+
+        if (recorded == nanos.length) stop();
+    }
+
+    private void resetTick() {
+        tickNanos = 0;
+        tickBytes = 0;
+        tickCalls = 0;
+    }
+
+    /**
+     * Sends the summary to the requester and writes the JSON report off the main thread.
+     */
+    private void report() {
+        int n = recorded;
+        long[] tickNanosSorted = sorted(nanos, n);
+        long[] tickBytesSorted = sorted(bytes, n);
+        long[] callsSorted = sorted(calls, n);
+        double[] serverSorted = Arrays.copyOf(serverTickMillis, n);
+        Arrays.sort(serverSorted);
+
+        if (n == 0) {
+            requester.sendMessage(Component.text("Profile ended before any tick was recorded.", NamedTextColor.YELLOW));
+            return;
+        }
+
+        requester.sendMessage(Component.text("Handler profile over " + n + " ticks:", NamedTextColor.GREEN));
+        requester.sendMessage(Component.text(String.format(Locale.ROOT, "- Time per tick (µs): p50 %.1f, p99 %.1f, max %.1f",
+                percentile(tickNanosSorted, 0.50) / 1000.0, percentile(tickNanosSorted, 0.99) / 1000.0,
+                tickNanosSorted[n - 1] / 1000.0), NamedTextColor.YELLOW));
+        requester.sendMessage(Component.text("- Allocated per tick (bytes): p50 " + percentile(tickBytesSorted, 0.50)
+                + ", p99 " + percentile(tickBytesSorted, 0.99) + ", max " + tickBytesSorted[n - 1], NamedTextColor.YELLOW));
+        requester.sendMessage(Component.text("- Handler calls per tick: p50 " + percentile(callsSorted, 0.50)
+                + ", max " + callsSorted[n - 1], NamedTextColor.YELLOW));
+
+        // Per-handler allocation, checked against the configured budgets
+        finished.sort((a, b) -> Long.compare(b.bytes, a.bytes));
+        for (Profiled profiled : finished) {
+            if (profiled.calls == 0) continue;
+            long meanBytes = profiled.bytes / profiled.calls;
+            boolean over = meanBytes > budget(profiled);
+            requester.sendMessage(Component.text("  " + profiled.name + ": " + profiled.calls + " calls, "
+                    + meanBytes + " B/call (max " + profiled.maxBytes + ")" + (over ? " OVER BUDGET " + budget(profiled) : ""),
+                    over ? NamedTextColor.RED : NamedTextColor.GRAY));
+            if (over) {
+                plugin.getSlf4jLogger().warn("Handler {} allocated {} bytes per call, over its budget of {}",
+                        profiled.name, meanBytes, budget(profiled));
+            }
+        }
+
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\n");
+        json.append("  \"plugin_version\": \"").append(plugin.getPluginMeta().getVersion()).append("\",\n");
+        json.append("  \"catalog_version\": ").append(plugin.getCatalog().version()).append(",\n");
+        json.append("  \"ticks\": ").append(n).append(",\n");
+        json.append("  \"online_players\": ").append(Bukkit.getOnlinePlayers().size()).append(",\n");
+        appendStats(json, "handler_nanos_per_tick", tickNanosSorted, n).append(",\n");
+        appendStats(json, "handler_bytes_per_tick", tickBytesSorted, n).append(",\n");
+        appendStats(json, "handler_calls_per_tick", callsSorted, n).append(",\n");
+        json.append(String.format(Locale.ROOT, "  \"server_tick_millis\": {\"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, \"max\": %.3f},\n",
+                percentile(serverSorted, 0.50), percentile(serverSorted, 0.90), percentile(serverSorted, 0.99), serverSorted[n - 1]));
+        json.append("  \"handlers\": [");
+        boolean first = true;
+        for (Profiled profiled : finished) {
+            if (profiled.calls == 0) continue;
+            long meanBytes = profiled.bytes / profiled.calls;
+            json.append(first ? "\n" : ",\n");
+            json.append("    {\"name\": \"").append(profiled.name).append('"')
+                    .append(", \"calls\": ").append(profiled.calls)
+                    .append(", \"mean_nanos\": ").append(profiled.nanos / profiled.calls)
+                    .append(", \"mean_bytes\": ").append(meanBytes)
+                    .append(", \"max_bytes\": ").append(profiled.maxBytes)
+                    .append(", \"budget_bytes\": ").append(budget(profiled))
+                    .append(", \"over_budget\": ").append(meanBytes > budget(profiled))
+                    .append('}');
+            first = false;
+        }
+        json.append(first ? "]\n" : "\n  ]\n");
+        json.append("}\n");
+
+        Path file = plugin.getDataFolder().toPath().resolve("profiles")
+                .resolve("profile-" + LocalDateTime.now().format(FILE_TIME) + ".json");
+        CommandSender sender = requester;
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, json, StandardCharsets.UTF_8);
+                sender.sendMessage(Component.text("- Written to " + plugin.getDataFolder().toPath().relativize(file), NamedTextColor.YELLOW));
+            } catch (IOException e) {
+                plugin.getSlf4jLogger().warn("Could not write profile {}", file, e);
+            }
+        });
+    }
+
+    /**
+     * Returns the allocation budget, in mean bytes per call, for a handler.
+     * Keys under {@code allocation-budgets} are {@code <Listener>/<Event>} names.
+     */
+    private long budget(Profiled profiled) {
+        Object value = budgets.get(profiled.name);
+        return value instanceof Number number ? number.longValue() : defaultBudget;
+    }
+
+    private static StringBuilder appendStats(StringBuilder json, String name, long[] sorted, int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) sum += sorted[i];
+        return json.append("  \"").append(name).append("\": {")
+                .append("\"mean\": ").append(sum / n)
+                .append(", \"p50\": ").append(percentile(sorted, 0.50))
+                .append(", \"p90\": ").append(percentile(sorted, 0.90))
+                .append(", \"p99\": ").append(percentile(sorted, 0.99))
+                .append(", \"max\": ").append(sorted[n - 1])
+                .append('}');
+    }
+
+    private static long[] sorted(long[] values, int n) {
+        long[] copy = Arrays.copyOf(values, n);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    /**
+     * Stand-in for one of the plugin's registered handlers that measures the real call.
+     */
+    private final class Profiled extends RegisteredListener {
+
+        private final HandlerList handlers;
+        private final RegisteredListener delegate;
+        private String name;
+        private long calls;
+        private long nanos;
+        private long bytes;
+        private long maxBytes;
+
+        Profiled(HandlerList handlers, RegisteredListener delegate) {
+            super(delegate.getListener(), (listener, event) -> {}, delegate.getPriority(),
+                    delegate.getPlugin(), delegate.isIgnoringCancelled());
+            this.handlers = handlers;
+            this.delegate = delegate;
+            this.name = delegate.getListener().getClass().getSimpleName();
+        }
+
+        @Override
+        public void callEvent(Event event) throws EventException {
+            if (event.isAsynchronous()) {
+                delegate.callEvent(event);
+                return;
+            }
+
+            long startBytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            try {
+                delegate.callEvent(event);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                long allocated = threads.getCurrentThreadAllocatedBytes() - startBytes;
+                if (calls++ == 0) name = name + "/" + event.getEventName();
+                nanos += elapsed;
+                bytes += allocated;
+                if (allocated > maxBytes) maxBytes = allocated;
+                tickNanos += elapsed;
+                tickBytes += allocated;
+                tickCalls++;
+            }
+        }
+    }
+}
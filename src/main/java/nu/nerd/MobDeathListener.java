@@ -1,19 +1,26 @@
 package nu.nerd;
 
+import nu.nerd.catalog.DropCondition;
+import nu.nerd.catalog.DropOverlays;
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadDelivery;
+import nu.nerd.catalog.HeadRule;
+import nu.nerd.catalog.LootTable;
+import nu.nerd.jfr.HeadRollEvent;
 import nu.nerd.utils.EntityVariantUtils;
 import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.*;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.entity.CreatureSpawnEvent;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.metadata.FixedMetadataValue;
 import org.bukkit.metadata.MetadataValue;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
 
 /**
  * Listens for mob and player deaths and handles head drops.
@@ -26,6 +33,11 @@ import org.bukkit.metadata.MetadataValue;
 public class MobDeathListener implements Listener {
 
     private final CustomDrops plugin;
+    private final HeadDropCoalescer dropCoalescer;
+    private final DropRateLimiter rateLimiter;
+    private final HeadCollectionTracker collections;
+    private final HeadLeaderboards leaderboards;
+    private final DamageAttribution damageAttribution;
     private final boolean debug;
     private static final String CHARGED_CREEPER_KEY = "NerdHeadsChargedCreeper";
     private static final String PLAYER_NAME_KEY = "NerdHeadsPlayer";
@@ -33,10 +45,22 @@ public class MobDeathListener implements Listener {
     /**
      * Constructs a new MobDeathListener.
      *
-     * @param plugin the main plugin instance used for configuration and logging
+     * @param plugin        the main plugin instance used for configuration and logging
+     * @param dropCoalescer buffer that spawns this tick's head drops together at tick end
+     * @param rateLimiter   per-chunk and per-killer limiter consulted before each head roll
+     * @param collections   per-player head collections, credited when a head is delivered to its killer
+     * @param leaderboards  head counters behind {@code /mobhead top}, updated on every player-kill drop
+     * @param damageAttribution damage ledgers that pick the killer of configured boss mobs
      */
-    public MobDeathListener(CustomDrops plugin) {
+    public MobDeathListener(CustomDrops plugin, HeadDropCoalescer dropCoalescer, DropRateLimiter rateLimiter,
+                            HeadCollectionTracker collections, HeadLeaderboards leaderboards,
+                            DamageAttribution damageAttribution) {
         this.plugin = plugin;
+        this.dropCoalescer = dropCoalescer;
+        this.rateLimiter = rateLimiter;
+        this.collections = collections;
+        this.leaderboards = leaderboards;
+        this.damageAttribution = damageAttribution;
         this.debug = plugin.getConfig().getBoolean("debug", false);
     }
 
@@ -54,6 +78,9 @@ public class MobDeathListener implements Listener {
         Entity victim = event.getEntity();
         if (!(victim instanceof LivingEntity living)) return;
 
+        // Only players and configured mobs can drop heads; skip the metadata work for the rest
+        if (!(victim instanceof Player) && !plugin.getCatalog().hasDrop(victim.getType().name())) return;
+
         double finalHealth = living.getHealth() - event.getFinalDamage();
         Entity damager = event.getDamager();
 
@@ -74,6 +101,10 @@ public class MobDeathListener implements Listener {
         else if (damager instanceof Projectile proj && proj.getShooter() instanceof Player shooter) player = shooter;
 
         if (player != null) {
+            // Boss mobs: remember every player's share, not just the last hitter
+            if (damageAttribution.tracks(victim.getType())) {
+                damageAttribution.record(victim, player, Math.min(event.getFinalDamage(), living.getHealth()));
+            }
             victim.setMetadata(PLAYER_NAME_KEY, new FixedMetadataValue(plugin, player.getName()));
             if (debug) plugin.getLogger().info("[DEBUG] Tagged mob for player kill: " + player.getName() + " -> " + victim.getType());
         }
@@ -91,7 +122,6 @@ public class MobDeathListener implements Listener {
     @EventHandler
     public void onEntityDeath(EntityDeathEvent event) {
         Entity entity = event.getEntity();
-        FileConfiguration config = plugin.getConfig();
 
         // ----------------------
         // REMOVE VANILLA HEAD DROPS
@@ -125,13 +155,18 @@ public class MobDeathListener implements Listener {
         // ----------------------
         if (!(entity instanceof Mob mob)) return;
 
+        // Unconfigured mob types never drop a head; return before any metadata lookup
+        HeadCatalog catalog = plugin.getCatalog();
+        if (!catalog.hasDrop(mob.getType().name())) return;
+
         // ----------------------
-        // BLOCK SPAWNER MOBS (if config disabled)
+        // WORLD AND SPAWN REASON OVERLAYS (e.g. spawner mobs, if config disabled)
         // ----------------------
-        boolean allowSpawnerHeads = config.getBoolean("allow-spawner-heads", false);
-        if (!allowSpawnerHeads && mob.getEntitySpawnReason() == CreatureSpawnEvent.SpawnReason.SPAWNER) {
+        DropOverlays overlays = catalog.overlays();
+        int overlayCell = overlays.cell(mob.getWorld(), mob.getEntitySpawnReason());
+        if (!overlays.isEnabled(overlayCell)) {
             if (debug) {
-                plugin.getLogger().info("[DEBUG] Prevented head drop for spawner mob: " + mob.getType());
+                plugin.getLogger().info("[DEBUG] Prevented head drop for " + mob.getEntitySpawnReason() + " mob: " + mob.getType());
             }
             return;
         }
@@ -140,65 +175,167 @@ public class MobDeathListener implements Listener {
         // CHARGED CREEPER KILLS
         // ----------------------
         if (entity.hasMetadata(CHARGED_CREEPER_KEY)) {
-            dropMobHead(mob, config, "charged creeper");
+            HeadRule rule = catalog.rule(mob.getType().name(), EntityVariantUtils.getVariantId(mob));
+            if (rule != null && overlays.allows(overlayCell, rule)
+                    && (rule.condition() == null || rule.condition().test(mob, null))) {
+                deliverMobHead(mob, rule, null, "charged creeper");
+            }
             return;
         }
 
         // ----------------------
         // PLAYER KILLS
         // ----------------------
-        MetadataValue playerMeta = entity.getMetadata(PLAYER_NAME_KEY).stream()
-                .filter(meta -> meta.getOwningPlugin() == plugin)
-                .findFirst()
-                .orElse(null);
+        MetadataValue playerMeta = null;
+        for (MetadataValue meta : entity.getMetadata(PLAYER_NAME_KEY)) {
+            if (meta.getOwningPlugin() == plugin) {
+                playerMeta = meta;
+                break;
+            }
+        }
         if (playerMeta != null) {
             Player killer = mob.getKiller();
+            if (damageAttribution.tracks(mob.getType())) {
+                killer = damageAttribution.attribute(mob, killer);
+                if (debug && killer != null) plugin.getLogger().info("[DEBUG] Attributed " + mob.getType() + " kill to " + killer.getName() + " by damage");
+            }
             if (killer == null) return;
 
-            // Get mob type and variant for config lookup
-            String mobKey = mob.getType().name();
-            String variantKey = EntityVariantUtils.getVariantId(mob);
-
-            // Determine configuration path:
-            // - If the mob has a variant, use drops.<MobType>.variants.<Variant>
-            // - Otherwise, use drops.<MobType>
-            String configPath = variantKey != null ? "drops." + mobKey + ".variants." + variantKey : "drops." + mobKey;
-            ConfigurationSection dropSection = config.getConfigurationSection(configPath);
-            if (dropSection == null) return;
-
-            // ----------------------
-            // DROP CHANCE CALCULATION
-            // ----------------------
-            int lootingLevel = getLootingLevel(killer);
-            double baseChance = dropSection.getDouble("base-drop-chance", 0.0);
-            double lootingBonus = dropSection.getDouble("looting-bonus", 0.0);
-            double finalChance = baseChance + (lootingBonus * lootingLevel);
-
-            // ----------------------
-            // ATTEMPT HEAD DROP
-            // ----------------------
-            if (Math.random() < finalChance) {
-                dropMobHead(mob, config, "player kill");
-            } else if (debug) {
-                plugin.getLogger().info("[DEBUG] Drop chance failed for: " + mob.getType() +
-                        (variantKey != null ? " (Variant: " + variantKey + ")" : ""));
+            HeadRollEvent roll = new HeadRollEvent();
+            roll.begin();
+            String outcome = rollPlayerKill(mob, killer, catalog, overlays, overlayCell, roll);
+            roll.end();
+            if (roll.shouldCommit()) {
+                roll.entityType = mob.getType().name();
+                roll.variant = EntityVariantUtils.getVariantId(mob);
+                roll.outcome = outcome;
+                roll.commit();
             }
         }
     }
 
     /**
-     * Drops a custom mob head at the mob's location.
+     * Rolls the head and loot tables for a mob killed by a player.
+     *
+     * @param mob         the mob that died
+     * @param killer      the player who killed it
+     * @param catalog     the current head catalog
+     * @param overlays    the catalog's world and spawn reason overlays
+     * @param overlayCell the overlay cell for the mob's world and spawn reason
+     * @param roll        the JFR event for this roll; receives the final chance
+     * @return the outcome of the head roll, for the JFR event
+     */
+    private String rollPlayerKill(Mob mob, Player killer, HeadCatalog catalog, DropOverlays overlays,
+                                  int overlayCell, HeadRollEvent roll) {
+        // Get mob type and variant for the catalog lookup
+        String variantKey = EntityVariantUtils.getVariantId(mob);
+
+        // Determine the rule:
+        // - If the mob has a variant, use drops.<MobType>.variants.<Variant>
+        // - Otherwise, use drops.<MobType>
+        HeadRule rule = catalog.exactRule(mob.getType().name(), variantKey);
+        if (rule == null) return "no-rule";
+        if (!overlays.allows(overlayCell, rule)) return "disallowed";
+
+        // ----------------------
+        // DROP CONDITIONS (biome, time, weather, weapon, permission, moon phase)
+        // ----------------------
+        DropCondition condition = rule.condition();
+        if (condition != null && !condition.test(mob, killer)) {
+            if (debug) plugin.getLogger().info("[DEBUG] Drop conditions not met for: " + mob.getType() +
+                    (variantKey != null ? " (Variant: " + variantKey + ")" : ""));
+            return "conditions";
+        }
+
+        // ----------------------
+        // RATE LIMIT (per chunk and per killer)
+        // ----------------------
+        if (!rateLimiter.tryAcquire(mob, killer)) {
+            if (debug) plugin.getLogger().info("[DEBUG] Head roll rate-limited for " + mob.getType() + " killed by " + killer.getName());
+            return "rate-limited";
+        }
+
+        // ----------------------
+        // DROP CHANCE CALCULATION
+        // ----------------------
+        // The main hand lookup copies the item, so only pay for it when looting matters
+        int lootingLevel = overlays.usesLooting(overlayCell, rule) ? getLootingLevel(killer) : 0;
+        double finalChance = overlays.chance(overlayCell, rule, lootingLevel);
+        roll.chance = finalChance;
+
+        // ----------------------
+        // ATTEMPT HEAD DROP
+        // ----------------------
+        String outcome = "missed";
+        if (Math.random() < finalChance) {
+            deliverMobHead(mob, rule, killer, "player kill");
+            leaderboards.recordDrop(killer, rule, finalChance);
+            outcome = "dropped";
+        } else if (debug) {
+            plugin.getLogger().info("[DEBUG] Drop chance failed for: " + mob.getType() +
+                    (variantKey != null ? " (Variant: " + variantKey + ")" : ""));
+        }
+
+        // ----------------------
+        // WEIGHTED LOOT TABLES (rolled independently of the head)
+        // ----------------------
+        for (LootTable table : catalog.lootTables(rule)) {
+            ItemStack loot = table.roll(head -> MobHeadFactory.issueHead(head, "loot table"));
+            if (loot != null) deliver(mob, rule, killer, loot, "loot table");
+        }
+        return outcome;
+    }
+
+    /**
+     * Delivers a custom mob head for the given rule.
+     * <p>
+     * With {@link HeadDelivery#INVENTORY} and a killer, the head goes straight into the
+     * killer's inventory; if it is full, the head overflows to the ender chest (when
+     * configured) and finally drops naturally. Otherwise the head drops at the mob's location
+     * at the end of the tick, through the {@link HeadDropCoalescer}.
      *
      * @param mob    the mob whose head to drop
-     * @param config the plugin configuration for custom head creation
+     * @param rule   the catalog rule for the mob (and variant)
+     * @param killer the player who earned the head, or {@code null} (e.g. charged creeper kills)
      * @param reason reason for the head drop (used in debug logs)
      */
-    private void dropMobHead(Mob mob, FileConfiguration config, String reason) {
-        ItemStack head = MobHeadFactory.createHeadFor(mob, config, plugin.getSlf4jLogger());
-        if (head != null) {
-            mob.getWorld().dropItemNaturally(mob.getLocation(), head);
-            if (debug) plugin.getLogger().info("[DEBUG] Dropped head for " + mob.getType() + " due to " + reason);
+    private void deliverMobHead(Mob mob, HeadRule rule, @Nullable Player killer, String reason) {
+        deliver(mob, rule, killer, MobHeadFactory.issueHead(rule, reason), reason);
+    }
+
+    /**
+     * Delivers an item earned from a mob, following the rule's delivery mode. Heads are
+     * added to the killer's collection wherever they end up.
+     *
+     * @param mob    the mob that dropped the item
+     * @param rule   the catalog rule for the mob (and variant)
+     * @param killer the player who earned the item, or {@code null}
+     * @param head   the item to deliver
+     * @param reason reason for the drop (used in debug logs)
+     */
+    private void deliver(Mob mob, HeadRule rule, @Nullable Player killer, ItemStack head, String reason) {
+        if (killer != null) collections.collect(killer, head);
+
+        if (killer != null && rule.delivery() == HeadDelivery.INVENTORY) {
+            Map<Integer, ItemStack> leftover = killer.getInventory().addItem(head);
+            if (leftover.isEmpty()) {
+                if (debug) plugin.getLogger().info("[DEBUG] Delivered head for " + mob.getType() + " to " + killer.getName() + " due to " + reason);
+                return;
+            }
+            head = leftover.values().iterator().next();
+
+            if (plugin.getCatalog().deliveryOverflow() == HeadDelivery.Overflow.ENDER_CHEST) {
+                leftover = killer.getEnderChest().addItem(head);
+                if (leftover.isEmpty()) {
+                    if (debug) plugin.getLogger().info("[DEBUG] Delivered head for " + mob.getType() + " to ender chest of " + killer.getName() + " due to " + reason);
+                    return;
+                }
+                head = leftover.values().iterator().next();
+            }
         }
+
+        dropCoalescer.drop(mob.getLocation(), head);
+        if (debug) plugin.getLogger().info("[DEBUG] Dropped head for " + mob.getType() + " due to " + reason);
     }
 
     /**
@@ -4,17 +4,21 @@ import com.destroystokyo.paper.profile.PlayerProfile;
 import com.destroystokyo.paper.profile.ProfileProperty;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadRule;
+import nu.nerd.jfr.HeadBuildEvent;
+import nu.nerd.jfr.PlayerHeadBuildEvent;
 import nu.nerd.utils.EntityVariantUtils;
 import nu.nerd.utils.MobHeadUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Entity;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.SkullMeta;
 import org.bukkit.persistence.PersistentDataType;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import java.nio.charset.StandardCharsets;
@@ -32,24 +36,24 @@ public class MobHeadFactory {
 
     private static final MiniMessage MINI = MiniMessage.miniMessage();
     private static final Component PLAYER_HEAD_LORE = MINI.deserialize("[Certified Authentic]"); // Consistent lore for player heads
-    private static final NamespacedKey CUSTOM_HEAD_KEY = new NamespacedKey("nerdnucustomdrops", "custom_head");
+    static final NamespacedKey CUSTOM_HEAD_KEY = new NamespacedKey("nerdnucustomdrops", "custom_head");
+    private static final NamespacedKey HEAD_SOUND_KEY = new NamespacedKey("nerdnucustomdrops", "head_sound");
+    static final NamespacedKey HEAD_RULE_KEY = new NamespacedKey("nerdnucustomdrops", "head_rule");
 
     /**
-     * Creates a custom head ItemStack for a given entity based on configuration.
+     * Creates a custom head ItemStack for a given entity based on the head catalog.
      * <p>
-     * Looks up variant-specific settings in the configuration, falls back to
-     * the base mob configuration if necessary, and applies textures, display names,
-     * lore, and head sounds as defined in the config.
+     * Looks up the variant-specific rule in the catalog, falls back to the base mob
+     * rule if necessary, and returns a copy of that rule's cached head template.
      *
-     * @param entity the entity that died or spawned the head
-     * @param config the plugin configuration file
-     * @param logger SLF4J logger for debug output
+     * @param entity  the entity that died or spawned the head
+     * @param catalog the compiled head catalog
+     * @param debug   whether debug logging is enabled
+     * @param logger  SLF4J logger for debug output
      * @return an ItemStack representing the custom head, or null if the entity
-     *         or configuration section is invalid
+     *         is null or its mob is not configured
      */
-    public static ItemStack createHeadFor(Entity entity, FileConfiguration config, Logger logger) {
-        boolean debug = config.getBoolean("debug", false);
-
+    public static ItemStack createHeadFor(Entity entity, HeadCatalog catalog, boolean debug, Logger logger) {
         if (entity == null) {
             if (debug) logger.warn("[DEBUG] Entity is null!");
             return null;
@@ -58,53 +62,107 @@ public class MobHeadFactory {
         String mobName = entity.getType().name();
         String variantKey = EntityVariantUtils.getVariantId(entity);
 
-        ConfigurationSection dropsSection = config.getConfigurationSection("drops");
-        if (dropsSection == null) {
-            if (debug) logger.warn("[DEBUG] No 'drops' section in config!");
+        HeadRule rule = catalog.rule(mobName, variantKey);
+        if (rule == null) {
+            if (debug) logger.warn("[DEBUG] No config section found for mob {} (variant {})", mobName, variantKey);
             return null;
         }
-
-        // 1️⃣ Determine which section to use: variant or base mob
-        ConfigurationSection section = null;
-        if (variantKey != null) {
-            ConfigurationSection variantSection = dropsSection.getConfigurationSection(mobName + ".variants." + variantKey);
-            if (variantSection != null) {
-                section = variantSection;
-                if (debug) logger.info("[DEBUG] Using variant section for {}: {}", mobName, variantKey);
-            }
-        }
-        if (section == null) {
-            section = dropsSection.getConfigurationSection(mobName);
-            if (section == null) {
-                if (debug) logger.warn("[DEBUG] No config section found for mob {} (variant {})", mobName, variantKey);
-                return null;
-            }
-            if (debug) logger.info("[DEBUG] Using base section for {}", mobName);
+        if (debug) {
+            if (rule.variantKey() != null) logger.info("[DEBUG] Using variant section for {}: {}", mobName, variantKey);
+            else logger.info("[DEBUG] Using base section for {}", mobName);
         }
 
-        // 2️⃣ Extract itemstack section (contains display-name, lore, texture)
-        ConfigurationSection itemstackSection = section.getConfigurationSection("itemstack");
-
-        // 3️⃣ Display name
-        String displayNameStr = (itemstackSection != null) ? itemstackSection.getString("display-name") : null;
-        Component displayName;
-        if (displayNameStr != null && !displayNameStr.isEmpty()) {
-            displayName = MINI.deserialize(displayNameStr);
-        } else {
-            displayName = (variantKey != null)
-                    ? MINI.deserialize(capitalize(variantKey) + " " + capitalize(mobName.toLowerCase()) + " Head")
-                    : MINI.deserialize(capitalize(mobName.toLowerCase()) + " Head");
+        return createHead(rule);
+    }
+
+    /**
+     * Creates a custom head for a catalog rule.
+     * <p>
+     * The first call for a rule builds its template (MiniMessage parsing, profile
+     * creation, texture application); later calls only clone the template.
+     *
+     * @param rule the head rule
+     * @return a new ItemStack for the head
+     */
+    public static ItemStack createHead(HeadRule rule) {
+        HeadBuildEvent build = new HeadBuildEvent();
+        build.begin();
+        boolean cached = rule.hasTemplate();
+        ItemStack head = rule.newHead(r -> buildTemplate(r, null));
+        build.end();
+        if (build.shouldCommit()) {
+            build.dropKey = rule.dropKey();
+            build.variant = rule.variantKey();
+            build.templateBuilt = !cached;
+            build.commit();
         }
+        return head;
+    }
+
+    /**
+     * Creates a custom head for a catalog rule that is being handed out, stamped with the
+     * rule's serial by the {@link HeadSerialTracker} when serials are tracked. Heads that
+     * are only shown (menu icons) use {@link #createHead} instead.
+     *
+     * @param rule   the head rule
+     * @param source why the head is handed out, e.g. {@code player kill} or {@code give}
+     * @return a new, stamped ItemStack for the head
+     */
+    public static ItemStack issueHead(HeadRule rule, String source) {
+        return issueHead(rule, source, 1);
+    }
 
-        // 4️⃣ Material
-        Material material = Material.matchMaterial((itemstackSection != null) ? itemstackSection.getString("type", "PLAYER_HEAD") : "PLAYER_HEAD");
-        if (material == null) material = Material.PLAYER_HEAD;
+    /**
+     * Creates a stack of custom heads that is being handed out. The whole stack is
+     * recorded as issued, so it can be placed head by head.
+     *
+     * @param rule   the head rule
+     * @param source why the heads are handed out
+     * @param amount how many heads the stack holds
+     * @return a new, stamped ItemStack for the heads
+     */
+    public static ItemStack issueHead(HeadRule rule, String source, int amount) {
+        ItemStack head = createHead(rule);
+        head.setAmount(amount);
+        HeadSerialTracker.stamp(head, rule.toString(), source);
+        return head;
+    }
 
-        // 5️⃣ Lore
-        String loreString = (itemstackSection != null) ? itemstackSection.getString("lore", "") : "";
-        List<Component> lore = loreString.isEmpty() ? List.of() : List.of(MINI.deserialize(loreString));
+    /**
+     * Builds and caches a rule's template ahead of time, without handing out a head.
+     * Does nothing if the template already exists.
+     *
+     * @param rule       the head rule
+     * @param phaseNanos accumulator for time spent per build phase: MiniMessage parsing,
+     *                   item meta, profile and texture
+     */
+    public static void prebuild(HeadRule rule, long[] phaseNanos) {
+        rule.prepare(r -> buildTemplate(r, phaseNanos));
+    }
 
-        // 6️⃣ Create head
+    /**
+     * Builds the template ItemStack for a rule, applying the display name, lore,
+     * head sound, custom head flag, and texture.
+     *
+     * @param rule       the head rule
+     * @param phaseNanos optional accumulator for per-phase build times (see {@link #prebuild})
+     * @return the template ItemStack
+     */
+    private static ItemStack buildTemplate(HeadRule rule, @Nullable long[] phaseNanos) {
+        long start = System.nanoTime();
+
+        // 1️⃣ Display name
+        Component displayName = displayName(rule);
+
+        // 2️⃣ Material
+        Material material = rule.material();
+
+        // 3️⃣ Lore
+        List<Component> lore = rule.loreComponents();
+
+        long parsed = System.nanoTime();
+
+        // 4️⃣ Create head
         ItemStack head = new ItemStack(material);
         head.editMeta(meta -> {
             if (meta != null) {
@@ -112,30 +170,53 @@ public class MobHeadFactory {
                 meta.lore(lore);
 
                 // Head sound
-                if (itemstackSection != null) {
-                    String sound = itemstackSection.getString("head-sound");
-                    if (sound != null && !sound.isEmpty()) {
-                        NamespacedKey soundKey = new NamespacedKey("nerdnucustomdrops", "head_sound");
-                        meta.getPersistentDataContainer().set(soundKey, PersistentDataType.STRING, sound);
-                    }
+                String sound = rule.headSound();
+                if (sound != null) {
+                    meta.getPersistentDataContainer().set(HEAD_SOUND_KEY, PersistentDataType.STRING, sound);
                 }
 
-                // PDC flag for custom head
-                meta.getPersistentDataContainer().set(CUSTOM_HEAD_KEY, PersistentDataType.BYTE, (byte)1);
+                // PDC flag for custom head, and which rule it came from (for collections)
+                markCustomHead(meta);
+                meta.getPersistentDataContainer().set(HEAD_RULE_KEY, PersistentDataType.STRING, rule.toString());
             }
         });
 
-        // 7️⃣ Apply texture if player head
-        String texture = (itemstackSection != null) ? itemstackSection.getString("internal") : null;
-        if (material == Material.PLAYER_HEAD && texture != null && !texture.isEmpty()) {
+        long built = System.nanoTime();
+
+        // 5️⃣ Apply texture if player head
+        String texture = rule.texture();
+        if (material == Material.PLAYER_HEAD && texture != null) {
             String profileName = MobHeadUtils.sanitizeProfileName(displayName);
-            if (debug) logger.info("[DEBUG] Applying custom texture for {} variant {}", mobName, variantKey);
             applyTexture(head, texture, profileName, displayName, lore);
         }
 
+        if (phaseNanos != null) {
+            phaseNanos[0] += parsed - start;
+            phaseNanos[1] += built - parsed;
+            phaseNanos[2] += System.nanoTime() - built;
+        }
+
         return head;
     }
 
+    /**
+     * Returns the display name heads of a rule get: the configured one, or one generated
+     * from the mob and variant, e.g. "Lucy Axolotl Head".
+     *
+     * @param rule the head rule
+     * @return the parsed display name
+     */
+    public static Component displayName(HeadRule rule) {
+        String displayName = rule.displayName();
+        if (displayName != null) return MINI.deserialize(displayName);
+
+        String mobName = capitalize(rule.dropKey().toLowerCase());
+        String variantKey = rule.variantKey();
+        return variantKey != null
+                ? MINI.deserialize(capitalize(variantKey) + " " + mobName + " Head")
+                : MINI.deserialize(mobName + " Head");
+    }
+
     /**
      * Applies a custom base64 texture to a player head while preserving its
      * display name and lore.
@@ -158,7 +239,8 @@ public class MobHeadFactory {
     }
 
     /**
-     * Creates a player head for a given player name (used for PvP drops) with consistent lore.
+     * Creates a player head for a given player name (used for PvP drops) with consistent lore,
+     * stamped with the player's serial when serials are tracked.
      *
      * @param playerName the player's name
      * @param debug whether debug logging is enabled
@@ -168,13 +250,22 @@ public class MobHeadFactory {
      */
     public static ItemStack createPlayerHead(String playerName, boolean debug, Logger logger, String reason) {
         if (debug) logger.info("[DEBUG] Creating player head for: {} due to {}", playerName, reason);
+        PlayerHeadBuildEvent build = new PlayerHeadBuildEvent();
+        build.begin();
         ItemStack head = new ItemStack(Material.PLAYER_HEAD);
         head.editMeta(SkullMeta.class, meta -> {
             meta.setOwningPlayer(Bukkit.getOfflinePlayer(playerName));
             meta.displayName(MINI.deserialize(playerName + " Head"));
             meta.lore(List.of(PLAYER_HEAD_LORE));
-            meta.getPersistentDataContainer().set(CUSTOM_HEAD_KEY, PersistentDataType.BYTE, (byte)1);
+            markCustomHead(meta);
         });
+        HeadSerialTracker.stamp(head, HeadSerialTracker.playerHead(playerName), reason);
+        build.end();
+        if (build.shouldCommit()) {
+            build.playerName = playerName;
+            build.reason = reason;
+            build.commit();
+        }
         return head;
     }
 
@@ -188,9 +279,40 @@ public class MobHeadFactory {
         if (str == null || str.isEmpty()) return str;
         return str.substring(0, 1).toUpperCase() + str.substring(1);
     }
-    /** Checks if a head is a custom plugin head via PDC flag. */
+    /**
+     * Checks if an item is a custom plugin head via its PDC flag.
+     * <p>
+     * Reads the flag through the item's read-only PDC view, so the item meta (and the
+     * player profile inside it) is never cloned.
+     *
+     * @param item the item to check
+     * @return {@code true} if the item carries the custom head flag
+     */
     public static boolean isCustomHead(ItemStack item) {
         if (item == null || !item.hasItemMeta()) return false;
-        return item.getItemMeta().getPersistentDataContainer().has(CUSTOM_HEAD_KEY, PersistentDataType.BYTE);
+        return item.getPersistentDataContainer().has(CUSTOM_HEAD_KEY, PersistentDataType.BYTE);
+    }
+
+    /**
+     * Sets the custom head flag on a head's meta. Heads rebuilt from a skull block
+     * need it too, or placing, picking up and collecting them stops working.
+     *
+     * @param meta the meta to flag
+     */
+    public static void markCustomHead(ItemMeta meta) {
+        meta.getPersistentDataContainer().set(CUSTOM_HEAD_KEY, PersistentDataType.BYTE, (byte) 1);
+    }
+
+    /**
+     * Returns the catalog rule a custom head was made from, read through the item's
+     * read-only PDC view.
+     *
+     * @param item the item to check
+     * @return the rule id ({@code MOB} or {@code MOB/variant}), or {@code null} for other items
+     *         and for heads made before rule ids were stored
+     */
+    public static @Nullable String ruleId(ItemStack item) {
+        if (item == null || !item.hasItemMeta()) return null;
+        return item.getPersistentDataContainer().get(HEAD_RULE_KEY, PersistentDataType.STRING);
     }
-}
\ No newline at end of file
+}
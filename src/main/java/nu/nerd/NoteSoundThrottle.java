@@ -0,0 +1,111 @@
+package nu.nerd;
+
+import nu.nerd.utils.TickStampMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.UUID;
+
+/**
+ * Limits how often note blocks under custom heads may play their head sound.
+ * <p>
+ * Each note block has a cooldown in ticks, and each chunk may play at most a fixed
+ * number of head sounds per second. This keeps a fast redstone clock from flooding
+ * nearby players with sound packets while ordinary head music keeps working. State is
+ * kept in primitive {@link TickStampMap}s keyed by packed block and chunk positions, so
+ * the check does not allocate. Main thread only, so no locking is needed.
+ * <p>
+ * Configured under {@code note-block-sounds} in {@code config.yml}.
+ */
+public class NoteSoundThrottle {
+
+    private static final int TICKS_PER_SECOND = 20;
+
+    private final TickStampMap blocks = new TickStampMap(1);
+    private final TickStampMap chunks = new TickStampMap(TICKS_PER_SECOND);
+    private int blockCooldown;
+    private int chunkCap;
+    private boolean useNotePitch;
+
+    // Counters for /mobhead stats
+    private long played;
+    private long throttledByBlock;
+    private long throttledByChunk;
+
+    /**
+     * (Re)reads the {@code note-block-sounds} settings and clears all tracked blocks and chunks.
+     *
+     * @param config the plugin configuration
+     */
+    public void configure(FileConfiguration config) {
+        blockCooldown = Math.max(0, config.getInt("note-block-sounds.block-cooldown-ticks", 2));
+        chunkCap = Math.max(0, config.getInt("note-block-sounds.chunk-sounds-per-second", 40));
+        useNotePitch = config.getBoolean("note-block-sounds.use-note-pitch", false);
+        blocks.reset(Math.max(1, blockCooldown));
+        chunks.reset(TICKS_PER_SECOND);
+    }
+
+    /**
+     * Records a head sound attempt for the note block, if neither its cooldown nor its chunk's cap
+     * forbids it.
+     *
+     * @param noteBlock the note block that was played
+     * @return {@code true} if the sound may be played
+     */
+    public boolean tryPlay(Block noteBlock) {
+        int now = Bukkit.getCurrentTick();
+        UUID worldId = noteBlock.getWorld().getUID();
+        long worldMix = worldId.getMostSignificantBits() * 31 + worldId.getLeastSignificantBits();
+
+        int chunkSlot = -1;
+        if (chunkCap > 0) {
+            chunkSlot = chunks.touch(Chunk.getChunkKey(noteBlock.getX() >> 4, noteBlock.getZ() >> 4) ^ worldMix, now);
+            if (chunks.count(chunkSlot) >= chunkCap) {
+                throttledByChunk++;
+                return false;
+            }
+        }
+
+        // A block entry that is still live was stamped by a sound played within the cooldown
+        int blockSlot = -1;
+        if (blockCooldown > 0) {
+            blockSlot = blocks.touch(noteBlock.getBlockKey() ^ worldMix, now);
+            if (blocks.stamp(blockSlot) != now || blocks.count(blockSlot) > 0) {
+                throttledByBlock++;
+                return false;
+            }
+        }
+
+        if (chunkSlot >= 0) chunks.increment(chunkSlot);
+        if (blockSlot >= 0) blocks.increment(blockSlot);
+        played++;
+        return true;
+    }
+
+    /** @return whether head sounds should follow the note block's pitch */
+    public boolean usesNotePitch() {
+        return useNotePitch;
+    }
+
+    /** @return number of head sounds allowed through */
+    public long played() {
+        return played;
+    }
+
+    /** @return number of head sounds skipped because the note block was cooling down */
+    public long throttledByBlock() {
+        return throttledByBlock;
+    }
+
+    /** @return number of head sounds skipped because the chunk reached its cap */
+    public long throttledByChunk() {
+        return throttledByChunk;
+    }
+
+    /** @return number of note blocks and chunks currently tracked */
+    public int trackedEntries() {
+        return blocks.size() + chunks.size();
+    }
+}
@@ -5,13 +5,13 @@ import org.bukkit.SoundCategory;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.Skull;
-import org.bukkit.configuration.ConfigurationSection;
-import org.bukkit.configuration.file.FileConfiguration;
 import com.destroystokyo.paper.profile.PlayerProfile;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.NotePlayEvent;
-import org.bukkit.plugin.Plugin;
+import org.bukkit.persistence.PersistentDataType;
+import nu.nerd.catalog.HeadRule;
+import nu.nerd.jfr.NoteSoundLookupEvent;
 
 import java.net.URL;
 
@@ -21,20 +21,29 @@ import java.net.URL;
  */
 public class NoteblockHeadSoundListener implements Listener {
 
-    private  final Plugin plugin;
-    private final FileConfiguration config;
+    private final CustomDrops plugin;
+    private final NoteSoundThrottle throttle;
     private final boolean debug;
 
+    // Pitch multiplier for each of the 25 note block notes (F#3 to F#5)
+    private static final float[] NOTE_PITCH = new float[25];
+
+    static {
+        for (int note = 0; note < NOTE_PITCH.length; note++) {
+            NOTE_PITCH[note] = (float) Math.pow(2.0, (note - 12) / 12.0);
+        }
+    }
+
     /**
      * Constructs a new NoteblockHeadSoundListener.
      *
-     * @param plugin The plugin instance to use for logging.
-     * @param config The configuration file containing custom head sounds and debug settings.
+     * @param plugin The plugin instance to use for logging, debug settings and head catalog lookups.
+     * @param throttle The per-block and per-chunk limiter for head sounds.
      */
-    public NoteblockHeadSoundListener(Plugin plugin, FileConfiguration config) {
+    public NoteblockHeadSoundListener(CustomDrops plugin, NoteSoundThrottle throttle) {
         this.plugin = plugin;
-        this.config = config;
-        this.debug = config.getBoolean("debug", false); // Default to false if "debug" is not set in config
+        this.throttle = throttle;
+        this.debug = plugin.getConfig().getBoolean("debug", false); // Default to false if "debug" is not set in config
     }
 
     /**
@@ -59,18 +68,38 @@ public class NoteblockHeadSoundListener implements Listener {
             return;
         }
 
-        if (!(blockAbove.getState() instanceof Skull skull)) {
+        if (!(blockAbove.getState(false) instanceof Skull skull)) {
             logDebug("Block above is not a skull, skipping.");
             return;
         }
 
+        // Only heads placed from this plugin's items can have a sound; vanilla heads must not use up the throttle
+        if (!skull.getPersistentDataContainer().has(MobHeadFactory.CUSTOM_HEAD_KEY, PersistentDataType.BYTE)) {
+            logDebug("Block above is not a custom head, skipping.");
+            return;
+        }
+
+        // Limits redstone clocks to a bounded number of sound packets and profile lookups
+        if (!throttle.tryPlay(noteBlock)) {
+            if (debug) logDebug("Head sound throttled at " + noteBlock.getX() + "," + noteBlock.getY() + "," + noteBlock.getZ());
+            return;
+        }
+
+        NoteSoundLookupEvent lookup = new NoteSoundLookupEvent();
+        lookup.begin();
         String matchedSound = getHeadSoundFromConfig(skull);
+        lookup.end();
+        if (lookup.shouldCommit()) {
+            lookup.sound = matchedSound;
+            lookup.matched = matchedSound != null;
+            lookup.commit();
+        }
         if (matchedSound == null) {
             logDebug("No matching sound found for the head.");
             return;
         }
 
-        logDebug("Matched custom head! Playing sound: " + matchedSound);
+        if (debug) logDebug("Matched custom head! Playing sound: " + matchedSound);
 
         // Plays the sound if a match is found
         noteBlock.getWorld().playSound(
@@ -78,10 +107,21 @@ public class NoteblockHeadSoundListener implements Listener {
                 matchedSound,
                 SoundCategory.MASTER, // switched to MASTER so it definitely plays
                 1.0f,
-                1.0f
+                throttle.usesNotePitch() ? notePitch(event) : 1.0f
         );
     }
 
+    /**
+     * Converts the note played into a sound pitch multiplier, as vanilla note blocks do.
+     *
+     * @param event The NotePlayEvent being handled.
+     * @return The pitch multiplier, from 0.5 to 2.0.
+     */
+    private float notePitch(NotePlayEvent event) {
+        int note = event.getNote().getId();
+        return note >= 0 && note < NOTE_PITCH.length ? NOTE_PITCH[note] : 1.0f;
+    }
+
     /**
      * Checks whether the given material is a type of Minecraft head.
      *
@@ -100,7 +140,7 @@ public class NoteblockHeadSoundListener implements Listener {
 
     /**
      * Retrieves the custom sound associated with a skull's player profile texture
-     * from the plugin configuration.
+     * from the head catalog.
      *
      * @param skull The Skull block state containing a player profile.
      * @return The name of the sound to play, or null if no match is found.
@@ -119,46 +159,18 @@ public class NoteblockHeadSoundListener implements Listener {
         }
 
         String fullTextureUrl = skinUrl.toString();
-        logDebug("Extracted texture URL: " + fullTextureUrl);
+        if (debug) logDebug("Extracted texture URL: " + fullTextureUrl);
 
-        // Look for sound in the config based on texture URL
-        ConfigurationSection dropsSection = config.getConfigurationSection("drops");
-        if (dropsSection == null) {
-            logDebug("No drops section found in config.");
+        // Look up the sound in the catalog's texture index
+        HeadRule rule = plugin.getCatalog().ruleForTexture(fullTextureUrl);
+        if (rule == null) {
+            logDebug("No matching texture URL found in drops section.");
             return null;
         }
 
-        // Iterate over all drops configurations and check for matching texture URLs
-        for (String mobKey : dropsSection.getKeys(false)) {
-            ConfigurationSection mobSection = dropsSection.getConfigurationSection(mobKey);
-            if (mobSection == null) continue;
-
-            String rootUrl = mobSection.getString("itemstack.url");
-            if (rootUrl != null && rootUrl.equalsIgnoreCase(fullTextureUrl)) {
-                String sound = mobSection.getString("itemstack.head-sound");
-                logDebug("Matched root texture URL: " + rootUrl + " with sound: " + sound);
-                return sound;
-            }
-
-            // Check inside variants for a matching texture
-            ConfigurationSection variantsSection = mobSection.getConfigurationSection("variants");
-            if (variantsSection != null) {
-                for (String variantKey : variantsSection.getKeys(false)) {
-                    ConfigurationSection variantSection = variantsSection.getConfigurationSection(variantKey);
-                    if (variantSection == null) continue;
-
-                    String variantUrl = variantSection.getString("itemstack.url");
-                    if (variantUrl != null && variantUrl.equalsIgnoreCase(fullTextureUrl)) {
-                        String sound = variantSection.getString("itemstack.head-sound");
-                        logDebug("Matched variant texture URL: " + variantUrl + " with sound: " + sound);
-                        return sound;
-                    }
-                }
-            }
-        }
-
-        logDebug("No matching texture URL found in drops section.");
-        return null;
+        String sound = rule.headSound();
+        if (debug) logDebug("Matched texture URL: " + rule.url() + " (" + rule + ") with sound: " + sound);
+        return sound;
     }
 
     /**
@@ -0,0 +1,45 @@
+package nu.nerd.api;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A head in the catalog, as listed by {@link CustomHeadService#heads()}.
+ * <p>
+ * Immutable: it describes the catalog at the time it was listed, and keeps making the
+ * same head after a reload.
+ */
+public interface CustomHead {
+
+    /** @return the mob type name the head is configured under, e.g. {@code "AXOLOTL"} */
+    String mob();
+
+    /** @return the entity type of {@link #mob()}, or {@code null} if it is not a known type */
+    @Nullable EntityType entityType();
+
+    /** @return the variant key, e.g. {@code "lucy"}, or {@code null} for the mob's base head */
+    @Nullable String variant();
+
+    /** @return the name heads of this kind are displayed with */
+    Component displayName();
+
+    /**
+     * Creates a head of this kind.
+     *
+     * @return a new head ItemStack
+     */
+    default ItemStack createHead() {
+        return createHead(1);
+    }
+
+    /**
+     * Creates a stack of heads of this kind. Use this rather than changing the amount of
+     * a single head, so every head in the stack is accounted for.
+     *
+     * @param amount how many heads the stack holds, from 1 to the head's maximum stack size
+     * @return a new head ItemStack
+     */
+    ItemStack createHead(int amount);
+}
@@ -0,0 +1,78 @@
+package nu.nerd.api;
+
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Public API for other plugins that want NerdNuCustomDrops heads.
+ * <p>
+ * Obtain it through Bukkit's services manager:
+ * <pre>{@code
+ * CustomHeadService heads = Bukkit.getServicesManager().load(CustomHeadService.class);
+ * }</pre>
+ * All methods are backed by the current head catalog and its cached item templates,
+ * and are safe to call from any thread.
+ */
+public interface CustomHeadService {
+
+    /**
+     * Creates a custom head for a mob and optional variant.
+     * <p>
+     * If the variant is {@code null} or not configured, the mob's base head is returned,
+     * exactly like a drop from a mob with that variant.
+     *
+     * @param type    the mob type
+     * @param variant the variant key (e.g. {@code "lucy"} for axolotls), or {@code null}
+     * @return a new head ItemStack, or {@code null} if the mob has no configured head
+     */
+    default @Nullable ItemStack createHead(EntityType type, @Nullable String variant) {
+        return createHead(type, variant, 1);
+    }
+
+    /**
+     * Creates a stack of custom heads for a mob and optional variant. Use this rather than
+     * changing the amount of a single head, so every head in the stack is accounted for.
+     *
+     * @param type    the mob type
+     * @param variant the variant key, or {@code null}
+     * @param amount  how many heads the stack holds, from 1 to the head's maximum stack size
+     * @return a new head ItemStack, or {@code null} if the mob has no configured head
+     */
+    @Nullable ItemStack createHead(EntityType type, @Nullable String variant, int amount);
+
+    /**
+     * Checks whether an item is a head created by this plugin.
+     *
+     * @param item the item to check
+     * @return {@code true} if the item is a custom head
+     */
+    boolean isCustomHead(@Nullable ItemStack item);
+
+    /**
+     * Returns the note block sound configured for a head texture.
+     *
+     * @param texture a base64 {@code textures} property value or a texture URL
+     * @return the sound key (e.g. {@code "minecraft:entity.allay.ambient_with_item"}),
+     *         or {@code null} if no head with that texture has a sound
+     */
+    @Nullable String soundFor(String texture);
+
+    /**
+     * Returns whether all head templates have been prebuilt after startup or reload.
+     * Heads can be created either way; before this returns {@code true} the first head
+     * of each kind is built on demand and is slightly more expensive.
+     *
+     * @return {@code true} once the catalog is warmed up
+     */
+    boolean isReady();
+
+    /**
+     * Lists every head in the catalog: mobs with their own head followed by their variants.
+     *
+     * @return an immutable snapshot of the current catalog's heads
+     */
+    List<CustomHead> heads();
+}
@@ -0,0 +1,67 @@
+package nu.nerd.catalog;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the strings and lore components of the rules compiled into one catalog, so
+ * that identical values (the shared lore line, sound keys, ...) are stored once instead
+ * of once per rule. Also counts how much was shared, for the load log.
+ * <p>
+ * Used by a single compile at a time; not thread-safe.
+ */
+final class CatalogStrings {
+
+    private static final MiniMessage MINI = MiniMessage.miniMessage();
+
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<String, List<Component>> lore = new HashMap<>();
+    private long sharedBytes;
+
+    /**
+     * @param value a string, or {@code null}
+     * @return the catalog's shared instance of an equal string, or {@code null}
+     */
+    @Nullable String intern(@Nullable String value) {
+        if (value == null) return null;
+        String shared = strings.putIfAbsent(value, value);
+        if (shared == null) return value;
+        sharedBytes += bytes(value);
+        return shared;
+    }
+
+    /**
+     * Bytes of a string's character array: one per char if all of them are Latin-1 (compact
+     * strings), two otherwise.
+     */
+    private static long bytes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) return value.length() * 2L;
+        }
+        return value.length();
+    }
+
+    /**
+     * @param miniMessage a MiniMessage lore line, or an empty string for none
+     * @return the parsed lore, shared between every rule with the same line
+     */
+    List<Component> lore(String miniMessage) {
+        if (miniMessage.isEmpty()) return List.of();
+        List<Component> shared = lore.get(miniMessage);
+        if (shared == null) {
+            shared = List.of(MINI.deserialize(miniMessage));
+            lore.put(miniMessage, shared);
+        }
+        return shared;
+    }
+
+    /** @return bytes of character data saved by sharing, not counting object headers */
+    long sharedBytes() {
+        return sharedBytes;
+    }
+}
@@ -0,0 +1,235 @@
+package nu.nerd.catalog;
+
+import io.papermc.paper.registry.RegistryAccess;
+import io.papermc.paper.registry.RegistryKey;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.ParsingException;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import nu.nerd.utils.EntityVariantUtils;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks drop sections for mistakes that the compiler would otherwise paper over:
+ * unknown mob types, materials and variants, broken or inconsistent textures, invalid
+ * MiniMessage and malformed sound keys.
+ * <p>
+ * Every drop is checked independently, so drops are validated in parallel; the problems
+ * are then sorted and logged as a single report.
+ */
+public final class CatalogValidator {
+
+    // The parser the heads are built with, so a name passes here exactly when it renders
+    private static final MiniMessage MINI = MiniMessage.miniMessage();
+    // A tag the parser did not recognise and left in the text as written
+    private static final Pattern LITERAL_TAG = Pattern.compile("<[a-z_#!/][^<>]*>");
+
+    /**
+     * One problem found in a rule.
+     *
+     * @param rule    the rule, as {@code MOB} or {@code MOB/variant}
+     * @param message what is wrong
+     */
+    public record Problem(String rule, String message) {}
+
+    /**
+     * The result of a validation run.
+     *
+     * @param checked  number of rules checked
+     * @param problems problems found, sorted by rule
+     * @param nanos    time taken
+     */
+    public record Report(int checked, List<Problem> problems, long nanos) {
+
+        /**
+         * Logs the report: one summary line, plus one warning per problem.
+         *
+         * @param logger the logger to write to
+         */
+        public void log(Logger logger) {
+            if (problems.isEmpty()) {
+                logger.info("Validated {} head rules in {} ms: no problems.", checked, String.format("%.1f", nanos / 1_000_000.0));
+                return;
+            }
+            logger.warn("Validated {} head rules in {} ms: {} problem(s).", checked,
+                    String.format("%.1f", nanos / 1_000_000.0), problems.size());
+            for (Problem problem : problems) {
+                logger.warn("- {}: {}", problem.rule(), problem.message());
+            }
+        }
+    }
+
+    private CatalogValidator() {}
+
+    /**
+     * Validates drop sections and the compiled catalog built from them.
+     *
+     * @param sections drop sections by drop key, as passed to the compiler
+     * @param catalog  the catalog compiled from them, used for cross-rule checks
+     * @return the aggregated report
+     */
+    public static Report validate(Map<String, ConfigurationSection> sections, HeadCatalog catalog) {
+        long start = System.nanoTime();
+
+        record Result(int checked, List<Problem> problems) {}
+        List<Result> results = sections.entrySet().parallelStream()
+                .map(entry -> {
+                    List<Problem> problems = new ArrayList<>();
+                    int checked = validateDrop(entry.getKey(), entry.getValue(), problems);
+                    return new Result(checked, problems);
+                })
+                .toList();
+
+        int checked = 0;
+        List<Problem> problems = new ArrayList<>();
+        for (Result result : results) {
+            checked += result.checked();
+            problems.addAll(result.problems());
+        }
+
+        // A texture shared by two rules makes note block sounds ambiguous
+        Map<String, HeadRule> byTexture = new HashMap<>();
+        for (HeadRule rule : catalog.rules()) {
+            if (rule.textureId() == null) continue;
+            HeadRule other = byTexture.putIfAbsent(rule.textureId(), rule);
+            if (other != null && (sections.containsKey(rule.dropKey()) || sections.containsKey(other.dropKey()))) {
+                problems.add(new Problem(rule.toString(), "uses the same texture as " + other + "; note blocks play " + other + "'s sound"));
+            }
+        }
+
+        problems.sort(Comparator.comparing(Problem::rule));
+        return new Report(checked, List.copyOf(problems), System.nanoTime() - start);
+    }
+
+    /**
+     * Validates a mob and its variants.
+     *
+     * @return the number of rules checked
+     */
+    private static int validateDrop(String dropKey, ConfigurationSection section, List<Problem> problems) {
+        EntityType type = null;
+        try {
+            type = EntityType.valueOf(dropKey);
+        } catch (IllegalArgumentException e) {
+            problems.add(new Problem(dropKey, "unknown entity type; this mob never drops a head"));
+        }
+
+        ConfigurationSection variants = section.getConfigurationSection("variants");
+        int checked = 0;
+        if (variants == null || section.isConfigurationSection("itemstack")) {
+            validateRule(dropKey, section, problems);
+            checked++;
+        }
+        if (variants == null) return checked;
+
+        Set<String> known = type != null ? EntityVariantUtils.knownVariantIds(type) : null;
+        if (type != null && known == null) {
+            problems.add(new Problem(dropKey, "has variants, but this mob type has none; only the base rule can drop"));
+        }
+        for (String variantKey : variants.getKeys(false)) {
+            String rule = dropKey + "/" + variantKey;
+            ConfigurationSection variant = variants.getConfigurationSection(variantKey);
+            if (variant == null) {
+                problems.add(new Problem(rule, "is not a section"));
+                continue;
+            }
+            if (known != null && !known.contains(variantKey)) {
+                problems.add(new Problem(rule, "unknown variant; expected one of " + known.stream().sorted().toList()));
+            }
+            validateRule(rule, variant, problems);
+            checked++;
+        }
+        return checked;
+    }
+
+    private static void validateRule(String rule, ConfigurationSection section, List<Problem> problems) {
+        double chance = section.getDouble("base-drop-chance", 0.0);
+        if (chance < 0 || chance > 1) problems.add(new Problem(rule, "base-drop-chance " + chance + " is outside 0..1"));
+        if (section.getDouble("looting-bonus", 0.0) < 0) problems.add(new Problem(rule, "looting-bonus is negative"));
+
+        ConfigurationSection item = section.getConfigurationSection("itemstack");
+        if (item == null) {
+            problems.add(new Problem(rule, "has no itemstack section; the head gets a generated name and no texture"));
+            return;
+        }
+
+        // Material
+        String typeName = item.getString("type", "PLAYER_HEAD");
+        Material material = Material.matchMaterial(typeName);
+        if (material == null) {
+            problems.add(new Problem(rule, "unknown material " + typeName + "; falls back to PLAYER_HEAD"));
+        } else if (!material.name().endsWith("_HEAD") && !material.name().endsWith("_SKULL")) {
+            problems.add(new Problem(rule, "material " + material + " is not a head"));
+        }
+
+        // Texture: internal must decode, and agree with url when both are set
+        String internal = emptyToNull(item.getString("internal"));
+        String url = emptyToNull(item.getString("url"));
+        String internalId = null;
+        if (internal != null) {
+            internalId = Textures.idFromBase64(internal);
+            if (internalId == null) problems.add(new Problem(rule, "internal is not a base64 texture with a skin URL"));
+        }
+        if (url != null) {
+            String urlId = Textures.idFromUrl(url);
+            if (urlId == null) {
+                problems.add(new Problem(rule, "url " + url + " has no texture id"));
+            } else if (internalId != null && !internalId.equals(urlId)) {
+                problems.add(new Problem(rule, "internal texture " + internalId + " does not match url " + urlId
+                        + "; the head uses internal"));
+            }
+        }
+        if (internal == null && url == null && (material == null || material == Material.PLAYER_HEAD)) {
+            problems.add(new Problem(rule, "player head without internal or url; it has no texture"));
+        }
+
+        // MiniMessage
+        validateMiniMessage(rule, "display-name", item.getString("display-name"), problems);
+        validateMiniMessage(rule, "lore", item.getString("lore"), problems);
+
+        // Sound key
+        String sound = emptyToNull(item.getString("head-sound"));
+        if (sound != null) {
+            NamespacedKey key = NamespacedKey.fromString(sound);
+            if (key == null) {
+                problems.add(new Problem(rule, "head-sound " + sound + " is not a valid sound key"));
+            } else if (key.getNamespace().equals(NamespacedKey.MINECRAFT)
+                    && RegistryAccess.registryAccess().getRegistry(RegistryKey.SOUND_EVENT).get(key) == null) {
+                problems.add(new Problem(rule, "head-sound " + sound + " is not a vanilla sound"));
+            }
+        }
+    }
+
+    private static void validateMiniMessage(String rule, String path, @Nullable String value, List<Problem> problems) {
+        if (value == null || value.isEmpty()) return;
+        Component parsed;
+        try {
+            parsed = MINI.deserialize(value);
+        } catch (ParsingException e) {
+            problems.add(new Problem(rule, path + " is not valid MiniMessage: " + e.getMessage()));
+            return;
+        }
+        Matcher tag = LITERAL_TAG.matcher(PlainTextComponentSerializer.plainText().serialize(parsed));
+        if (tag.find()) {
+            problems.add(new Problem(rule, path + " has tag " + tag.group() + " that MiniMessage does not recognise; it is shown as text"));
+        }
+    }
+
+    private static @Nullable String emptyToNull(@Nullable String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
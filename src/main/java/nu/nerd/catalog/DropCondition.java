@@ -0,0 +1,28 @@
+package nu.nerd.catalog;
+
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A precompiled predicate from a rule's {@code conditions} block.
+ * <p>
+ * Conditions are compiled once by {@link DropConditions#compile} and evaluated on
+ * every death of a mob whose rule has them. Each condition reports a relative cost
+ * so that composite conditions can evaluate the cheap checks first.
+ */
+public interface DropCondition {
+
+    /**
+     * Evaluates the condition for a death.
+     *
+     * @param victim the mob that died
+     * @param killer the player who killed it, or {@code null} (e.g. charged creeper kills);
+     *               conditions about the killer fail without one
+     * @return {@code true} if the head may drop
+     */
+    boolean test(LivingEntity victim, @Nullable Player killer);
+
+    /** @return relative evaluation cost; lower runs first */
+    int cost();
+}
@@ -0,0 +1,246 @@
+package nu.nerd.catalog;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles {@code conditions} blocks from {@code config.yml} into {@link DropCondition} trees.
+ * <p>
+ * Supported keys (all optional, all must match):
+ * <pre>
+ * conditions:
+ *   weather: clear | rain | thunder
+ *   time: { from: 13000, to: 23000 }   # world time in ticks, may wrap past 24000; a window
+ *                                      # spanning the whole day, or whose ends meet, always matches
+ *   moon-phases: [0, 4]                # 0 = full moon ... 7
+ *   weapons: [DIAMOND_SWORD, BOW]      # killer's main hand item
+ *   biomes: [minecraft:plains, desert]
+ *   permission: some.permission        # killer must have it
+ *   any:                               # at least one nested block must match
+ *     - { weather: rain }
+ *     - { biomes: [swamp] }
+ * </pre>
+ * Unknown values are ignored. Children of every node are sorted by cost, so cheap world
+ * checks run before inventory, biome and permission lookups.
+ */
+public final class DropConditions {
+
+    private DropConditions() {}
+
+    /**
+     * Compiles a conditions block.
+     *
+     * @param section the {@code conditions} section, may be {@code null}
+     * @return the compiled condition, or {@code null} if the block is missing or empty
+     */
+    public static @Nullable DropCondition compile(@Nullable ConfigurationSection section) {
+        if (section == null) return null;
+        List<DropCondition> conditions = new ArrayList<>();
+
+        String weather = section.getString("weather");
+        if (weather != null) {
+            switch (weather.toLowerCase(Locale.ROOT)) {
+                case "clear" -> conditions.add(new Weather(false, false));
+                case "rain" -> conditions.add(new Weather(true, false));
+                case "thunder" -> conditions.add(new Weather(true, true));
+                default -> {}
+            }
+        }
+
+        ConfigurationSection time = section.getConfigurationSection("time");
+        if (time != null) {
+            long from = time.getLong("from", 0);
+            long to = time.getLong("to", 24000);
+            // Normalizing would turn these into empty windows, e.g. { from: 0, to: 24000 } into [0, 0)
+            boolean wholeDay = to - from >= 24000 || Math.floorMod(to - from, 24000) == 0;
+            if (!wholeDay) conditions.add(new Time(Math.floorMod(from, 24000), Math.floorMod(to, 24000)));
+        }
+
+        List<Integer> moonPhases = section.getIntegerList("moon-phases");
+        if (!moonPhases.isEmpty()) {
+            int mask = 0;
+            for (int phase : moonPhases) mask |= 1 << Math.floorMod(phase, 8);
+            conditions.add(new MoonPhase(mask));
+        }
+
+        List<String> weapons = section.getStringList("weapons");
+        if (!weapons.isEmpty()) {
+            EnumSet<Material> materials = EnumSet.noneOf(Material.class);
+            for (String weapon : weapons) {
+                Material material = Material.matchMaterial(weapon);
+                if (material != null) materials.add(material);
+            }
+            if (!materials.isEmpty()) conditions.add(new Weapon(materials));
+        }
+
+        List<String> biomes = section.getStringList("biomes");
+        if (!biomes.isEmpty()) {
+            Set<NamespacedKey> keys = new HashSet<>();
+            for (String biome : biomes) {
+                NamespacedKey key = NamespacedKey.fromString(biome.toLowerCase(Locale.ROOT));
+                if (key != null) keys.add(key);
+            }
+            if (!keys.isEmpty()) conditions.add(new Biome(Set.copyOf(keys)));
+        }
+
+        String permission = section.getString("permission");
+        if (permission != null && !permission.isEmpty()) {
+            conditions.add(new Permission(permission));
+        }
+
+        List<Map<?, ?>> anyBlocks = section.getMapList("any");
+        if (!anyBlocks.isEmpty()) {
+            List<DropCondition> alternatives = new ArrayList<>();
+            for (Map<?, ?> block : anyBlocks) {
+                DropCondition alternative = compile(new MemoryConfiguration().createSection("any", block));
+                if (alternative != null) alternatives.add(alternative);
+            }
+            if (!alternatives.isEmpty()) conditions.add(new AnyOf(sortByCost(alternatives)));
+        }
+
+        if (conditions.isEmpty()) return null;
+        return conditions.size() == 1 ? conditions.getFirst() : new AllOf(sortByCost(conditions));
+    }
+
+    private static DropCondition[] sortByCost(List<DropCondition> conditions) {
+        return conditions.stream()
+                .sorted(Comparator.comparingInt(DropCondition::cost))
+                .toArray(DropCondition[]::new);
+    }
+
+    private static int totalCost(DropCondition[] children) {
+        int cost = 0;
+        for (DropCondition child : children) cost += child.cost();
+        return cost;
+    }
+
+    /** All children must match; evaluated cheapest first. */
+    private record AllOf(DropCondition[] children) implements DropCondition {
+        @Override
+        public boolean test(LivingEntity victim, @Nullable Player killer) {
+            for (DropCondition child : children) {
+                if (!child.test(victim, killer)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int cost() {
+            return totalCost(children);
+        }
+    }
+
+    /** At least one child must match; evaluated cheapest first. */
+    private record AnyOf(DropCondition[] children) implements DropCondition {
+        @Override
+        public boolean test(LivingEntity victim, @Nullable Player killer) {
+            for (DropCondition child : children) {
+                if (child.test(victim, killer)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public int cost() {
+            return totalCost(children);
+        }
+    }
+
+    /** Weather in the victim's world. */
+    private record Weather(boolean storm, boolean thunder) implements DropCondition {
+        @Override
+        public boolean test(LivingEntity victim, @Nullable Player killer) {
+            World world = victim.getWorld();
+            return world.hasStorm() == storm && world.isThundering() == thunder;
+        }
+
+        @Override
+        public int cost() {
+            return 1;
+        }
+    }
+
+    /** World time of day within {@code [from, to)}, wrapping past midnight. */
+    private record Time(long from, long to) implements DropCondition {
+        @Override
+        public boolean test(LivingEntity victim, @Nullable Player killer) {
+            long time = victim.getWorld().getTime();
+            return from <= to ? time >= from && time < to : time >= from || time < to;
+        }
+
+        @Override
+        public int cost() {
+            return 1;
+        }
+    }
+
+    /** Moon phase (full time / 24000 mod 8) contained in a bit mask. */
+    private record MoonPhase(int mask) implements DropCondition {
+        @Override
+        public boolean test(LivingEntity victim, @Nullable Player killer) {
+            int phase = (int) ((victim.getWorld().getFullTime() / 24000L) % 8L);
+            return (mask & (1 << phase)) != 0;
+        }
+
+        @Override
+        public int cost() {
+            return 1;
+        }
+    }
+
+    /** Type of the killer's main hand item. */
+    private record Weapon(EnumSet<Material> materials) implements DropCondition {
+        @Override
+        public boolean test(LivingEntity victim, @Nullable Player killer) {
+            return killer != null && materials.contains(killer.getInventory().getItemInMainHand().getType());
+        }
+
+        @Override
+        public int cost() {
+            return 2;
+        }
+    }
+
+    /** Biome at the victim's position. */
+    private record Biome(Set<NamespacedKey> keys) implements DropCondition {
+        @Override
+        public boolean test(LivingEntity victim, @Nullable Player killer) {
+            org.bukkit.block.Biome biome = victim.getWorld().getBiome(
+                    (int) Math.floor(victim.getX()), (int) Math.floor(victim.getY()), (int) Math.floor(victim.getZ()));
+            return keys.contains(biome.getKey());
+        }
+
+        @Override
+        public int cost() {
+            return 3;
+        }
+    }
+
+    /** Killer permission. */
+    private record Permission(String permission) implements DropCondition {
+        @Override
+        public boolean test(LivingEntity victim, @Nullable Player killer) {
+            return killer != null && killer.hasPermission(permission);
+        }
+
+        @Override
+        public int cost() {
+            return 4;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package nu.nerd.catalog;
+
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-world and per-spawn-reason adjustments to the drop rules, precompiled into flat
+ * lookup tables.
+ * <p>
+ * The {@code overlays} section of {@code config.yml} can scale or override drop chances
+ * (or disable drops) for specific worlds and {@link SpawnReason}s. At load time every
+ * combination of world overlay × spawn reason overlay × rule is merged into dense arrays,
+ * so a death only needs an array index: the world is resolved through a UUID cache and
+ * the spawn reason through its ordinal, without any string or config access.
+ * <p>
+ * The legacy {@code allow-spawner-heads} flag is compiled as the default for the
+ * {@code SPAWNER} reason.
+ */
+public final class DropOverlays {
+
+    private final Map<String, Integer> worldIndexByName;
+    private final int[] reasonIndex;
+    private final int reasonSlots;
+    private final int ruleCount;
+    private final boolean[] cellEnabled;
+    private final double[] baseChance;
+    private final double[] lootingBonus;
+
+    // World UUID -> world slot, filled on first death in each world
+    private final Map<UUID, Integer> worldCache = new ConcurrentHashMap<>();
+
+    /**
+     * Parsed adjustment for one mob or variant within an overlay.
+     *
+     * @param baseDropChance replacement base chance, or {@code null} to keep the rule's
+     * @param lootingBonus   replacement looting bonus, or {@code null} to keep the rule's
+     * @param enabled        whether drops are allowed, or {@code null} to inherit
+     * @param variants       per-variant adjustments (mob-level overrides only)
+     */
+    private record RuleOverride(@Nullable Double baseDropChance, @Nullable Double lootingBonus,
+                                @Nullable Boolean enabled, Map<String, RuleOverride> variants) {}
+
+    /**
+     * Parsed overlay for one world or spawn reason.
+     *
+     * @param enabled    whether drops are allowed at all
+     * @param multiplier factor applied to both the base chance and the looting bonus
+     * @param drops      per-mob adjustments by drop key
+     */
+    private record Overlay(boolean enabled, double multiplier, Map<String, RuleOverride> drops) {}
+
+    private DropOverlays(Map<String, Integer> worldIndexByName, int[] reasonIndex, int reasonSlots, int ruleCount,
+                         boolean[] cellEnabled, double[] baseChance, double[] lootingBonus) {
+        this.worldIndexByName = worldIndexByName;
+        this.reasonIndex = reasonIndex;
+        this.reasonSlots = reasonSlots;
+        this.ruleCount = ruleCount;
+        this.cellEnabled = cellEnabled;
+        this.baseChance = baseChance;
+        this.lootingBonus = lootingBonus;
+    }
+
+    /**
+     * Compiles the overlays in {@code config} against the given rules.
+     *
+     * @param config the plugin configuration
+     * @param rules  the catalog's rules, indexed by ordinal
+     * @return the compiled overlays
+     */
+    static DropOverlays compile(FileConfiguration config, List<HeadRule> rules) {
+        ConfigurationSection overlaysSection = config.getConfigurationSection("overlays");
+
+        // Worlds: slot 0 is "no overlay"
+        List<Overlay> worlds = new ArrayList<>();
+        worlds.add(null);
+        Map<String, Integer> worldIndexByName = new HashMap<>();
+        ConfigurationSection worldsSection = overlaysSection != null ? overlaysSection.getConfigurationSection("worlds") : null;
+        if (worldsSection != null) {
+            for (String worldName : worldsSection.getKeys(false)) {
+                ConfigurationSection section = worldsSection.getConfigurationSection(worldName);
+                if (section == null) continue;
+                worldIndexByName.put(worldName, worlds.size());
+                worlds.add(parseOverlay(section, true));
+            }
+        }
+
+        // Spawn reasons: slot 0 is "no overlay"; only reasons with an overlay get a slot
+        List<Overlay> reasons = new ArrayList<>();
+        reasons.add(null);
+        int[] reasonIndex = new int[SpawnReason.values().length];
+        ConfigurationSection reasonsSection = overlaysSection != null ? overlaysSection.getConfigurationSection("spawn-reasons") : null;
+        boolean allowSpawnerHeads = config.getBoolean("allow-spawner-heads", false);
+        for (SpawnReason reason : SpawnReason.values()) {
+            ConfigurationSection section = reasonsSection != null ? reasonsSection.getConfigurationSection(reason.name()) : null;
+            boolean defaultEnabled = reason != SpawnReason.SPAWNER || allowSpawnerHeads;
+            if (section == null && defaultEnabled) continue;
+
+            reasonIndex[reason.ordinal()] = reasons.size();
+            reasons.add(section != null ? parseOverlay(section, defaultEnabled) : new Overlay(false, 1.0, Map.of()));
+        }
+
+        int ruleCount = rules.size();
+        int cells = worlds.size() * reasons.size();
+        boolean[] cellEnabled = new boolean[cells];
+        double[] baseChance = new double[cells * ruleCount];
+        double[] lootingBonus = new double[cells * ruleCount];
+
+        for (int w = 0; w < worlds.size(); w++) {
+            for (int r = 0; r < reasons.size(); r++) {
+                Overlay world = worlds.get(w);
+                Overlay reason = reasons.get(r);
+                int cell = w * reasons.size() + r;
+
+                cellEnabled[cell] = (world == null || world.enabled()) && (reason == null || reason.enabled());
+                double multiplier = (world != null ? world.multiplier() : 1.0) * (reason != null ? reason.multiplier() : 1.0);
+
+                for (HeadRule rule : rules) {
+                    double base = rule.baseDropChance();
+                    double looting = rule.lootingBonus();
+                    boolean enabled = cellEnabled[cell];
+
+                    for (Overlay overlay : new Overlay[]{world, reason}) {
+                        if (overlay == null) continue;
+                        for (RuleOverride override : overridesFor(overlay, rule)) {
+                            if (override.baseDropChance() != null) base = override.baseDropChance();
+                            if (override.lootingBonus() != null) looting = override.lootingBonus();
+                            if (override.enabled() != null) enabled = enabled && override.enabled();
+                        }
+                    }
+
+                    int index = cell * ruleCount + rule.ordinal();
+                    baseChance[index] = enabled ? base * multiplier : Double.NaN;
+                    lootingBonus[index] = looting * multiplier;
+                }
+            }
+        }
+
+        return new DropOverlays(Map.copyOf(worldIndexByName), reasonIndex, reasons.size(), ruleCount,
+                cellEnabled, baseChance, lootingBonus);
+    }
+
+    /**
+     * Resolves the lookup cell for a death in the given world with the given spawn reason.
+     *
+     * @param world  the world the mob died in
+     * @param reason the mob's spawn reason
+     * @return the cell index for {@link #isEnabled}, {@link #allows} and {@link #chance}
+     */
+    public int cell(World world, SpawnReason reason) {
+        int worldSlot = 0;
+        if (!worldIndexByName.isEmpty()) {
+            UUID worldId = world.getUID();
+            Integer cached = worldCache.get(worldId);
+            if (cached == null) {
+                cached = worldIndexByName.getOrDefault(world.getName(), 0);
+                worldCache.put(worldId, cached);
+            }
+            worldSlot = cached;
+        }
+        return worldSlot * reasonSlots + reasonIndex[reason.ordinal()];
+    }
+
+    /**
+     * @param cell a cell from {@link #cell}
+     * @return {@code false} if head drops are disabled entirely for that world and spawn reason
+     */
+    public boolean isEnabled(int cell) {
+        return cellEnabled[cell];
+    }
+
+    /**
+     * @param cell a cell from {@link #cell}
+     * @param rule the head rule
+     * @return {@code true} if the rule may drop in that cell
+     */
+    public boolean allows(int cell, HeadRule rule) {
+        if (rule.ordinal() < 0) return cellEnabled[cell];
+        return !Double.isNaN(baseChance[cell * ruleCount + rule.ordinal()]);
+    }
+
+    /**
+     * Returns the drop chance for a rule in a cell, including the looting bonus.
+     *
+     * @param cell         a cell from {@link #cell}
+     * @param rule         the head rule
+     * @param lootingLevel the killer's looting level
+     * @return the final drop chance, or 0 if the rule may not drop in that cell
+     */
+    public double chance(int cell, HeadRule rule, int lootingLevel) {
+        if (rule.ordinal() < 0) return cellEnabled[cell] ? rule.baseDropChance() + rule.lootingBonus() * lootingLevel : 0.0;
+        int index = cell * ruleCount + rule.ordinal();
+        double base = baseChance[index];
+        return Double.isNaN(base) ? 0.0 : base + lootingBonus[index] * lootingLevel;
+    }
+
+    /**
+     * @param cell a cell from {@link #cell}
+     * @param rule the head rule
+     * @return {@code true} if the killer's looting level changes the rule's chance in that
+     *         cell, so callers can skip looking it up when it does not
+     */
+    public boolean usesLooting(int cell, HeadRule rule) {
+        if (rule.ordinal() < 0) return rule.lootingBonus() != 0;
+        return lootingBonus[cell * ruleCount + rule.ordinal()] != 0;
+    }
+
+    private static Overlay parseOverlay(ConfigurationSection section, boolean defaultEnabled) {
+        Map<String, RuleOverride> drops = new HashMap<>();
+        ConfigurationSection dropsSection = section.getConfigurationSection("drops");
+        if (dropsSection != null) {
+            for (String dropKey : dropsSection.getKeys(false)) {
+                ConfigurationSection dropSection = dropsSection.getConfigurationSection(dropKey);
+                if (dropSection != null) drops.put(dropKey.toUpperCase(Locale.ROOT), parseRuleOverride(dropSection));
+            }
+        }
+        return new Overlay(section.getBoolean("enabled", defaultEnabled), section.getDouble("chance-multiplier", 1.0), drops);
+    }
+
+    private static RuleOverride parseRuleOverride(ConfigurationSection section) {
+        Map<String, RuleOverride> variants = new HashMap<>();
+        ConfigurationSection variantsSection = section.getConfigurationSection("variants");
+        if (variantsSection != null) {
+            for (String variantKey : variantsSection.getKeys(false)) {
+                ConfigurationSection variantSection = variantsSection.getConfigurationSection(variantKey);
+                if (variantSection != null) variants.put(variantKey, parseRuleOverride(variantSection));
+            }
+        }
+        return new RuleOverride(
+                section.isSet("base-drop-chance") ? section.getDouble("base-drop-chance") : null,
+                section.isSet("looting-bonus") ? section.getDouble("looting-bonus") : null,
+                section.isSet("enabled") ? section.getBoolean("enabled") : null,
+                variants);
+    }
+
+    /** Mob-level override first, then the variant-level override (if any). */
+    private static List<RuleOverride> overridesFor(Overlay overlay, HeadRule rule) {
+        RuleOverride mob = overlay.drops().get(rule.dropKey());
+        if (mob == null) return List.of();
+        RuleOverride variant = rule.variantKey() != null ? mob.variants().get(rule.variantKey()) : null;
+        return variant != null ? List.of(mob, variant) : List.of(mob);
+    }
+}
@@ -0,0 +1,377 @@
+package nu.nerd.catalog;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the {@code drops} section of the plugin configuration.
+ * <p>
+ * A new catalog is compiled every time the configuration is (re)loaded. Each catalog
+ * carries a version number, so caches derived from it (tab completion, list pages, ...)
+ * can cheaply tell whether they are stale and need to be rebuilt.
+ * <p>
+ * Drop keys are the upper-case mob type names used in {@code config.yml}; variant keys
+ * are the lower-case ids returned by {@link nu.nerd.utils.EntityVariantUtils}.
+ */
+public final class HeadCatalog {
+
+    private final long version;
+    private final List<HeadRule> rules;
+    private final List<String> dropKeys;
+    private final Map<String, Drop> drops;
+    private final Map<String, HeadRule> byTexture;
+    private final HeadDelivery.Overflow deliveryOverflow;
+    private final DropOverlays overlays;
+    private final List<List<LootTable>> lootTables;
+    private final long sharedBytes;
+
+    /**
+     * A configured mob: its base rule plus any variant rules.
+     *
+     * @param base        rule for the mob itself (also the fallback for unknown variants)
+     * @param variants    variant rules by variant key
+     * @param variantKeys variant keys in configuration order
+     * @param listed      the drop's rules that are in {@link #rules()}, in ordinal order
+     * @param loot        unresolved loot tables for each listed rule
+     */
+    private record Drop(HeadRule base, Map<String, HeadRule> variants, List<String> variantKeys,
+                        List<HeadRule> listed, List<List<LootTable>> loot) {
+
+        /**
+         * Moves the drop's listed rules to start at the given ordinal.
+         *
+         * @param first the ordinal of the first listed rule
+         * @return the renumbered drop, or this drop if nothing moves
+         */
+        Drop renumber(int first) {
+            if (listed.isEmpty() || listed.get(0).ordinal() == first) return this;
+
+            Map<HeadRule, HeadRule> moved = new HashMap<>();
+            List<HeadRule> renumbered = new ArrayList<>(listed.size());
+            for (int i = 0; i < listed.size(); i++) {
+                HeadRule rule = listed.get(i).withOrdinal(first + i);
+                moved.put(listed.get(i), rule);
+                renumbered.add(rule);
+            }
+
+            Map<String, HeadRule> movedVariants = new HashMap<>();
+            variants.forEach((key, rule) -> movedVariants.put(key, moved.getOrDefault(rule, rule)));
+            return new Drop(moved.getOrDefault(base, base), Map.copyOf(movedVariants), variantKeys,
+                    List.copyOf(renumbered), loot);
+        }
+    }
+
+    private HeadCatalog(long version, List<HeadRule> rules, List<String> dropKeys, Map<String, Drop> drops,
+                        Map<String, HeadRule> byTexture, HeadDelivery.Overflow deliveryOverflow,
+                        DropOverlays overlays, List<List<LootTable>> lootTables, long sharedBytes) {
+        this.version = version;
+        this.rules = rules;
+        this.dropKeys = dropKeys;
+        this.drops = drops;
+        this.byTexture = byTexture;
+        this.deliveryOverflow = deliveryOverflow;
+        this.overlays = overlays;
+        this.lootTables = lootTables;
+        this.sharedBytes = sharedBytes;
+    }
+
+    /**
+     * Compiles a catalog from the {@code drops} section of the given configuration.
+     *
+     * @param config  the plugin configuration
+     * @param version the version number to assign to the new catalog
+     * @return the compiled catalog (empty if the configuration has no drops section)
+     */
+    public static HeadCatalog compile(FileConfiguration config, long version) {
+        return compile(config, Map.of(), Set.of(), version, null);
+    }
+
+    /**
+     * Compiles a catalog from the {@code drops} section of the given configuration plus
+     * per-mob head file sections.
+     * <p>
+     * With a previous catalog, every drop of that catalog is carried over as already
+     * compiled (renumbered if needed, keeping built item templates) unless it is
+     * configured again in {@code config} or {@code sections}, or listed in {@code removed}.
+     * The compiled catalog keeps no reference to the configuration, so callers may
+     * release the {@code drops} tree and the head file sections once this returns.
+     *
+     * @param config   the plugin configuration (global settings and, optionally, {@code drops})
+     * @param sections drop sections from the {@code heads/} directory, by drop key; these
+     *                 replace {@code config.yml} entries for the same mob
+     * @param removed  drop keys to leave out of the new catalog
+     * @param version  the version number to assign to the new catalog
+     * @param previous the catalog being replaced, or {@code null} to compile from scratch
+     * @return the compiled catalog
+     */
+    public static HeadCatalog compile(FileConfiguration config, Map<String, ConfigurationSection> sections,
+                                      Set<String> removed, long version, @Nullable HeadCatalog previous) {
+        List<HeadRule> rules = new ArrayList<>();
+        List<List<LootTable>> unresolvedLoot = new ArrayList<>();
+        List<String> dropKeys = new ArrayList<>();
+        Map<String, Drop> drops = new HashMap<>();
+        CatalogStrings strings = new CatalogStrings();
+        HeadDelivery defaultDelivery = HeadDelivery.parse(config.getString("head-delivery"), HeadDelivery.DROP);
+        HeadDelivery.Overflow overflow = HeadDelivery.Overflow.parse(config.getString("head-delivery-overflow"), HeadDelivery.Overflow.DROP);
+
+        // Previous drops first (null = carry over), then config.yml drops, then head files;
+        // a replacement keeps the position of the entry it replaces
+        Map<String, ConfigurationSection> sources = new LinkedHashMap<>();
+        if (previous != null) {
+            for (String dropKey : previous.dropKeys) sources.put(dropKey, null);
+        }
+        ConfigurationSection dropsSection = config.getConfigurationSection("drops");
+        if (dropsSection != null) {
+            for (String dropKey : dropsSection.getKeys(false)) {
+                ConfigurationSection dropSection = dropsSection.getConfigurationSection(dropKey);
+                if (dropSection != null) sources.put(dropKey, dropSection);
+            }
+        }
+        sources.putAll(sections);
+        sources.keySet().removeAll(removed);
+
+        for (Map.Entry<String, ConfigurationSection> source : sources.entrySet()) {
+            String dropKey = source.getKey();
+            Drop drop = source.getValue() != null
+                    ? compileDrop(dropKey, source.getValue(), rules.size(), defaultDelivery, strings)
+                    : previous.drops.get(dropKey).renumber(rules.size());
+            rules.addAll(drop.listed());
+            unresolvedLoot.addAll(drop.loot());
+            dropKeys.add(dropKey);
+            drops.put(dropKey, drop);
+        }
+
+        // Index every rule by its texture id
+        Map<String, HeadRule> byTexture = new HashMap<>();
+        for (HeadRule rule : rules) {
+            if (rule.textureId() != null) byTexture.putIfAbsent(rule.textureId(), rule);
+        }
+
+        // Loot tables may name any catalog head, so they are resolved once every rule exists
+        List<List<LootTable>> lootTables = new ArrayList<>(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            lootTables.add(LootTable.resolve(unresolvedLoot.get(i), rules.get(i), (dropKey, variantKey) -> {
+                Drop drop = drops.get(dropKey);
+                if (drop == null) return null;
+                return variantKey != null ? drop.variants().get(variantKey) : (drop.base().ordinal() >= 0 ? drop.base() : null);
+            }));
+        }
+
+        List<HeadRule> ruleList = List.copyOf(rules);
+        return new HeadCatalog(version, ruleList, List.copyOf(dropKeys), Map.copyOf(drops), Map.copyOf(byTexture),
+                overflow, DropOverlays.compile(config, ruleList), List.copyOf(lootTables), strings.sharedBytes());
+    }
+
+    /** @return the version number of this catalog; higher is newer */
+    public long version() {
+        return version;
+    }
+
+    /** @return where inventory-delivered heads go when the killer's inventory is full */
+    public HeadDelivery.Overflow deliveryOverflow() {
+        return deliveryOverflow;
+    }
+
+    /** @return per-world and per-spawn-reason drop chance tables */
+    public DropOverlays overlays() {
+        return overlays;
+    }
+
+    /**
+     * Returns the weighted loot tables rolled alongside the head roll for a rule.
+     *
+     * @param rule a rule from this catalog
+     * @return the rule's loot tables, or an empty list if it has none
+     */
+    public List<LootTable> lootTables(HeadRule rule) {
+        int ordinal = rule.ordinal();
+        return ordinal >= 0 && ordinal < lootTables.size() ? lootTables.get(ordinal) : List.of();
+    }
+
+    /** @return every head rule (mobs with their own head, then their variants), indexed by ordinal */
+    public List<HeadRule> rules() {
+        return rules;
+    }
+
+    /** @return all configured drop keys (mob type names), in configuration order */
+    public List<String> dropKeys() {
+        return dropKeys;
+    }
+
+    /**
+     * Returns whether a drop is configured for the given key.
+     *
+     * @param dropKey the drop key, e.g. {@code "ZOMBIE"}
+     * @return {@code true} if the drop exists
+     */
+    public boolean hasDrop(String dropKey) {
+        return drops.containsKey(dropKey);
+    }
+
+    /**
+     * Returns the variant keys configured for a drop.
+     *
+     * @param dropKey the drop key, e.g. {@code "AXOLOTL"}
+     * @return the variant keys in configuration order, or an empty list if none
+     */
+    public List<String> variantKeys(String dropKey) {
+        Drop drop = drops.get(dropKey);
+        return drop != null ? drop.variantKeys() : List.of();
+    }
+
+    /**
+     * Looks up the rule for a mob and optional variant.
+     * <p>
+     * If the variant is {@code null} or not configured, the mob's base rule is returned.
+     *
+     * @param dropKey    the drop key, e.g. {@code "AXOLOTL"}
+     * @param variantKey the variant key, e.g. {@code "lucy"}, or {@code null}
+     * @return the matching rule, or {@code null} if the mob is not configured
+     */
+    public @Nullable HeadRule rule(String dropKey, @Nullable String variantKey) {
+        Drop drop = drops.get(dropKey);
+        if (drop == null) return null;
+        if (variantKey != null) {
+            HeadRule variant = drop.variants().get(variantKey);
+            if (variant != null) return variant;
+        }
+        return drop.base();
+    }
+
+    /**
+     * Looks up the rule for an exact mob and variant pair, without falling back.
+     *
+     * @param dropKey    the drop key
+     * @param variantKey the variant key, or {@code null} for the base mob rule
+     * @return the matching rule, or {@code null} if that exact pair is not configured
+     */
+    public @Nullable HeadRule exactRule(String dropKey, @Nullable String variantKey) {
+        Drop drop = drops.get(dropKey);
+        if (drop == null) return null;
+        return variantKey != null ? drop.variants().get(variantKey) : drop.base();
+    }
+
+    /**
+     * Finds the rule whose texture matches the given base64 texture value or texture URL.
+     * Both are reduced to their texture id, so URLs are matched ignoring case.
+     *
+     * @param textureOrUrl a base64 {@code textures} property value or a texture URL
+     * @return the matching rule, or {@code null} if no head uses that texture
+     */
+    public @Nullable HeadRule ruleForTexture(String textureOrUrl) {
+        String id = textureOrUrl.regionMatches(true, 0, "http", 0, 4) ? Textures.idFromUrl(textureOrUrl) : Textures.idFromBase64(textureOrUrl);
+        return id != null ? byTexture.get(id) : null;
+    }
+
+    /** @return approximate bytes saved by sharing identical strings between rules at compile time */
+    public long sharedBytes() {
+        return sharedBytes;
+    }
+
+    /**
+     * Compiles one mob and its variants, numbering its listed rules from {@code first}.
+     */
+    private static Drop compileDrop(String dropKey, ConfigurationSection dropSection, int first,
+                                    HeadDelivery defaultDelivery, CatalogStrings strings) {
+        List<HeadRule> listed = new ArrayList<>();
+        List<List<LootTable>> loot = new ArrayList<>();
+        EntityType type = matchEntityType(dropKey);
+        ConfigurationSection variantsSection = dropSection.getConfigurationSection("variants");
+
+        // A mob with only variants has no head of its own; its base rule is just a fallback
+        boolean isListed = variantsSection == null || dropSection.isConfigurationSection("itemstack");
+        HeadDelivery dropDelivery = HeadDelivery.parse(dropSection.getString("delivery"), defaultDelivery);
+        DropCondition dropCondition = DropConditions.compile(dropSection.getConfigurationSection("conditions"));
+        List<LootTable> dropLoot = LootTable.compileAll(dropSection);
+        HeadRule base = compileRule(isListed ? first : -1, dropKey, null, type, dropSection,
+                dropDelivery, dropCondition, strings);
+        if (isListed) {
+            listed.add(base);
+            loot.add(dropLoot);
+        }
+
+        Map<String, HeadRule> variants = new HashMap<>();
+        List<String> variantKeys = new ArrayList<>();
+        if (variantsSection != null) {
+            for (String variantKey : variantsSection.getKeys(false)) {
+                ConfigurationSection variantSection = variantsSection.getConfigurationSection(variantKey);
+                if (variantSection == null) continue;
+
+                // Variants inherit the mob's delivery, conditions and loot tables unless they set their own
+                HeadDelivery delivery = HeadDelivery.parse(variantSection.getString("delivery"), dropDelivery);
+                DropCondition condition = variantSection.isConfigurationSection("conditions")
+                        ? DropConditions.compile(variantSection.getConfigurationSection("conditions"))
+                        : dropCondition;
+                HeadRule rule = compileRule(first + listed.size(), dropKey, variantKey, type, variantSection,
+                        delivery, condition, strings);
+                listed.add(rule);
+                loot.add(variantSection.contains("loot-tables") ? LootTable.compileAll(variantSection) : dropLoot);
+                variants.put(variantKey, rule);
+                variantKeys.add(variantKey);
+            }
+        }
+
+        return new Drop(base, Map.copyOf(variants), List.copyOf(variantKeys), List.copyOf(listed), List.copyOf(loot));
+    }
+
+    private static HeadRule compileRule(int ordinal, String dropKey, @Nullable String variantKey,
+                                        @Nullable EntityType type, ConfigurationSection section,
+                                        HeadDelivery delivery, @Nullable DropCondition condition,
+                                        CatalogStrings strings) {
+        ConfigurationSection item = section.getConfigurationSection("itemstack");
+
+        Material material = Material.matchMaterial(item != null ? item.getString("type", "PLAYER_HEAD") : "PLAYER_HEAD");
+        if (material == null) material = Material.PLAYER_HEAD;
+
+        // Store the texture as its id; the base64 property (encoded from the URL if that is all
+        // there is) is only kept when it cannot be rebuilt from the id exactly
+        String internal = item != null ? emptyToNull(item.getString("internal")) : null;
+        String url = item != null ? emptyToNull(item.getString("url")) : null;
+        String texture = internal != null ? internal : url != null ? Textures.base64FromUrl(url) : null;
+        String textureId = texture != null ? Textures.idFromBase64(texture) : null;
+        if (textureId == null && url != null) textureId = Textures.idFromUrl(url);
+        if (texture != null && textureId != null && texture.equals(Textures.base64FromId(textureId))) texture = null;
+
+        String lore = strings.intern(item != null ? item.getString("lore", "") : "");
+
+        return new HeadRule(
+                ordinal,
+                dropKey,
+                variantKey,
+                type,
+                section.getDouble("base-drop-chance", 0.0),
+                section.getDouble("looting-bonus", 0.0),
+                material,
+                strings.intern(item != null ? emptyToNull(item.getString("display-name")) : null),
+                lore,
+                strings.lore(lore),
+                strings.intern(item != null ? emptyToNull(item.getString("head-sound")) : null),
+                strings.intern(texture),
+                strings.intern(textureId),
+                delivery,
+                condition
+        );
+    }
+
+    private static @Nullable EntityType matchEntityType(String dropKey) {
+        try {
+            return EntityType.valueOf(dropKey);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable String emptyToNull(@Nullable String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
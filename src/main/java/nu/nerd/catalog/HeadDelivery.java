@@ -0,0 +1,61 @@
+package nu.nerd.catalog;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * How a dropped mob head reaches the player who earned it.
+ */
+public enum HeadDelivery {
+
+    /** Spawn the head as an item entity at the mob's location (vanilla behavior) */
+    DROP,
+
+    /** Put the head straight into the killer's inventory */
+    INVENTORY;
+
+    /**
+     * Parses a config value such as {@code "drop"} or {@code "inventory"}.
+     *
+     * @param value    the config value, may be {@code null}
+     * @param fallback the value to use if {@code value} is missing or unknown
+     * @return the parsed delivery mode
+     */
+    public static HeadDelivery parse(@Nullable String value, HeadDelivery fallback) {
+        if (value == null || value.isEmpty()) return fallback;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Where a head goes when {@link #INVENTORY} delivery finds the killer's inventory full.
+     */
+    public enum Overflow {
+
+        /** Try the killer's ender chest, then drop naturally */
+        ENDER_CHEST,
+
+        /** Drop naturally at the mob's location */
+        DROP;
+
+        /**
+         * Parses a config value such as {@code "ender-chest"} or {@code "drop"}.
+         *
+         * @param value    the config value, may be {@code null}
+         * @param fallback the value to use if {@code value} is missing or unknown
+         * @return the parsed overflow mode
+         */
+        public static Overflow parse(@Nullable String value, Overflow fallback) {
+            if (value == null || value.isEmpty()) return fallback;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                return fallback;
+            }
+        }
+    }
+}
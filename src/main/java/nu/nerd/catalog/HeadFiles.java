@@ -0,0 +1,96 @@
+package nu.nerd.catalog;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Reads the optional {@code heads/} directory, where each mob can be configured in its own
+ * YAML file instead of under {@code drops} in {@code config.yml}.
+ * <p>
+ * A file is named after the mob ({@code zombie.yml}, {@code AXOLOTL.yml}) and holds what
+ * would otherwise be the content of {@code drops.<MOB>}: chances, {@code itemstack},
+ * {@code variants}, conditions and so on. Files are parsed independently of each other,
+ * so they can be parsed in parallel and re-read one at a time when they change.
+ */
+public final class HeadFiles {
+
+    private HeadFiles() {}
+
+    /**
+     * Returns the drop key a head file configures.
+     *
+     * @param file a path inside the heads directory
+     * @return the upper-case drop key, or {@code null} if the file is not a YAML file
+     */
+    public static @Nullable String dropKey(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0) return null;
+
+        String extension = name.substring(dot + 1).toLowerCase(Locale.ROOT);
+        if (!extension.equals("yml") && !extension.equals("yaml")) return null;
+        return name.substring(0, dot).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses one head file.
+     *
+     * @param file the file to parse
+     * @return the file's root section
+     * @throws IOException                   if the file cannot be read
+     * @throws InvalidConfigurationException if the file is not valid YAML
+     */
+    public static ConfigurationSection load(Path file) throws IOException, InvalidConfigurationException {
+        YamlConfiguration yaml = new YamlConfiguration();
+        yaml.loadFromString(Files.readString(file));
+        return yaml;
+    }
+
+    /**
+     * Parses every head file in a directory, in parallel. Files that fail to parse are
+     * logged and skipped.
+     *
+     * @param directory the heads directory
+     * @param logger    logger for files that fail to parse
+     * @return the parsed sections by drop key, sorted by key; empty if the directory does not exist
+     */
+    public static Map<String, ConfigurationSection> loadAll(Path directory, Logger logger) {
+        Map<String, ConfigurationSection> sections = new TreeMap<>();
+        if (!Files.isDirectory(directory)) return sections;
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> Files.isRegularFile(file) && dropKey(file) != null).toList();
+        } catch (IOException e) {
+            logger.warn("Could not list head files in {}", directory, e);
+            return sections;
+        }
+
+        record Parsed(String dropKey, @Nullable ConfigurationSection section) {}
+        List<Parsed> parsed = files.parallelStream().map(file -> {
+            try {
+                return new Parsed(dropKey(file), load(file));
+            } catch (IOException | InvalidConfigurationException e) {
+                logger.warn("Skipping head file {}: {}", file.getFileName(), e.getMessage());
+                return new Parsed(dropKey(file), null);
+            }
+        }).toList();
+
+        for (Parsed result : parsed) {
+            if (result.section() != null) sections.put(result.dropKey(), result.section());
+        }
+        return sections;
+    }
+}
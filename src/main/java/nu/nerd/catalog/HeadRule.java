@@ -0,0 +1,206 @@
+package nu.nerd.catalog;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single compiled head definition: either a mob ({@code drops.<MOB>}) or one of its
+ * variants ({@code drops.<MOB>.variants.<variant>}).
+ * <p>
+ * Rules are immutable apart from their lazily built item template, which is created
+ * on first use and then shared (by cloning) for every head made from this rule. The
+ * template itself never leaves the rule.
+ */
+public final class HeadRule {
+
+    private final int ordinal;
+    private final String dropKey;
+    private final @Nullable String variantKey;
+    private final @Nullable EntityType entityType;
+    private final double baseDropChance;
+    private final double lootingBonus;
+    private final Material material;
+    private final @Nullable String displayName;
+    private final String lore;
+    private final List<Component> loreComponents;
+    private final @Nullable String headSound;
+    /** The base64 property, only when it is not the canonical encoding of {@link #textureId} */
+    private final @Nullable String texture;
+    private final @Nullable String textureId;
+    private final HeadDelivery delivery;
+    private final @Nullable DropCondition condition;
+
+    private volatile ItemStack template;
+
+    HeadRule(int ordinal, String dropKey, @Nullable String variantKey, @Nullable EntityType entityType,
+             double baseDropChance, double lootingBonus, Material material, @Nullable String displayName,
+             String lore, List<Component> loreComponents, @Nullable String headSound, @Nullable String texture,
+             @Nullable String textureId, HeadDelivery delivery, @Nullable DropCondition condition) {
+        this.ordinal = ordinal;
+        this.dropKey = dropKey;
+        this.variantKey = variantKey;
+        this.entityType = entityType;
+        this.baseDropChance = baseDropChance;
+        this.lootingBonus = lootingBonus;
+        this.material = material;
+        this.displayName = displayName;
+        this.lore = lore;
+        this.loreComponents = loreComponents;
+        this.headSound = headSound;
+        this.texture = texture;
+        this.textureId = textureId;
+        this.delivery = delivery;
+        this.condition = condition;
+    }
+
+    /**
+     * Copies a rule to a new ordinal, sharing everything including a built template.
+     *
+     * @param ordinal the new ordinal
+     * @return the copy, or this rule if the ordinal is unchanged
+     */
+    HeadRule withOrdinal(int ordinal) {
+        if (ordinal == this.ordinal) return this;
+        HeadRule copy = new HeadRule(ordinal, dropKey, variantKey, entityType, baseDropChance, lootingBonus,
+                material, displayName, lore, loreComponents, headSound, texture, textureId, delivery, condition);
+        copy.template = template;
+        return copy;
+    }
+
+    /** @return position of this rule in {@link HeadCatalog#rules()}, or -1 for a bare mob fallback */
+    public int ordinal() {
+        return ordinal;
+    }
+
+    /** @return the drop key (mob type name), e.g. {@code "AXOLOTL"} */
+    public String dropKey() {
+        return dropKey;
+    }
+
+    /** @return the variant key, e.g. {@code "lucy"}, or {@code null} for a base mob rule */
+    public @Nullable String variantKey() {
+        return variantKey;
+    }
+
+    /** @return the entity type matching the drop key, or {@code null} if it is not a known type */
+    public @Nullable EntityType entityType() {
+        return entityType;
+    }
+
+    /** @return base drop chance (0.01 = 1%) */
+    public double baseDropChance() {
+        return baseDropChance;
+    }
+
+    /** @return extra drop chance per looting level */
+    public double lootingBonus() {
+        return lootingBonus;
+    }
+
+    /** @return the head material, {@link Material#PLAYER_HEAD} unless configured otherwise */
+    public Material material() {
+        return material;
+    }
+
+    /** @return the MiniMessage display name, or {@code null} to use a generated name */
+    public @Nullable String displayName() {
+        return displayName;
+    }
+
+    /** @return the MiniMessage lore line, or an empty string for none */
+    public String lore() {
+        return lore;
+    }
+
+    /** @return the parsed lore line; shared between rules, must not be modified */
+    public List<Component> loreComponents() {
+        return loreComponents;
+    }
+
+    /** @return the note block sound key, or {@code null} if none is configured */
+    public @Nullable String headSound() {
+        return headSound;
+    }
+
+    /**
+     * Returns the base64 texture property: {@code internal}, or encoded from {@code url} if only
+     * that is configured. Most rules only store the texture id and encode the property again
+     * on each call, so call this when building a template, not per head.
+     *
+     * @return the base64 texture property, or {@code null} if the rule has no texture
+     */
+    public @Nullable String texture() {
+        if (texture != null) return texture;
+        return textureId != null ? Textures.base64FromId(textureId) : null;
+    }
+
+    /** @return the lower-case texture id (hash) of the texture, or {@code null} if unknown */
+    public @Nullable String textureId() {
+        return textureId;
+    }
+
+    /** @return the texture URL, rebuilt from the texture id, or {@code null} if unknown */
+    public @Nullable String url() {
+        return textureId != null ? Textures.url(textureId) : null;
+    }
+
+    /** @return how heads dropped by this rule reach the killer */
+    public HeadDelivery delivery() {
+        return delivery;
+    }
+
+    /** @return the compiled {@code conditions} block, or {@code null} if the rule has none */
+    public @Nullable DropCondition condition() {
+        return condition;
+    }
+
+    /** @return whether this rule's item template has been built */
+    public boolean hasTemplate() {
+        return template != null;
+    }
+
+    /**
+     * Creates a head from this rule's item template, building the template with
+     * {@code builder} on first use.
+     *
+     * @param builder creates the template from this rule
+     * @return a clone of the cached template
+     */
+    public ItemStack newHead(Function<HeadRule, ItemStack> builder) {
+        return template(builder).clone();
+    }
+
+    /**
+     * Builds this rule's item template with {@code builder}, unless it already exists.
+     *
+     * @param builder creates the template from this rule
+     */
+    public void prepare(Function<HeadRule, ItemStack> builder) {
+        template(builder);
+    }
+
+    private ItemStack template(Function<HeadRule, ItemStack> builder) {
+        ItemStack result = template;
+        if (result == null) {
+            synchronized (this) {
+                result = template;
+                if (result == null) {
+                    result = builder.apply(this);
+                    template = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return variantKey != null ? dropKey + "/" + variantKey : dropKey;
+    }
+}
@@ -0,0 +1,165 @@
+package nu.nerd.catalog;
+
+import nu.nerd.utils.AliasTable;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A weighted loot table attached to a drop rule, rolled independently of the head roll.
+ * <p>
+ * Configured as a list under {@code loot-tables} on a mob or variant:
+ * <pre>
+ * loot-tables:
+ *   - chance: 0.10              # chance the table rolls at all (default 1.0)
+ *     entries:
+ *       - { weight: 1, head: self }              # this rule's head
+ *       - { weight: 1, head: AXOLOTL/blue }      # another catalog head
+ *       - { weight: 5, item: { type: DIAMOND, amount: 2 } }
+ *       - { weight: 93 }                         # nothing
+ * </pre>
+ * Entries are compiled into a Walker alias table, so a roll costs O(1) regardless of
+ * the number of entries. Head entries are compiled as references first and resolved
+ * against each new catalog, so a table can outlive the YAML it was read from.
+ */
+public final class LootTable {
+
+    private final double chance;
+    private final AliasTable alias;
+    private final Entry[] entries;
+
+    /** Head reference meaning "the rule the table belongs to" */
+    private static final String SELF = "self";
+
+    /**
+     * One outcome of a table: a catalog head, a fixed ItemStack, or nothing.
+     *
+     * @param headRef the configured head reference ({@code self}, {@code MOB} or {@code MOB/variant}), or {@code null}
+     * @param head    the resolved head rule to create, or {@code null}
+     * @param item    the item template to clone, or {@code null}
+     */
+    private record Entry(@Nullable String headRef, @Nullable HeadRule head, @Nullable ItemStack item) {}
+
+    private LootTable(double chance, AliasTable alias, Entry[] entries) {
+        this.chance = chance;
+        this.alias = alias;
+        this.entries = entries;
+    }
+
+    /**
+     * Compiles the {@code loot-tables} list of a mob or variant section. Head entries stay
+     * unresolved until {@link #resolve}.
+     *
+     * @param section the mob or variant section
+     * @return the compiled tables, or an empty list if none are configured or valid
+     */
+    static List<LootTable> compileAll(ConfigurationSection section) {
+        List<Map<?, ?>> tableMaps = section.getMapList("loot-tables");
+        if (tableMaps.isEmpty()) return List.of();
+
+        List<LootTable> tables = new ArrayList<>();
+        for (Map<?, ?> tableMap : tableMaps) {
+            LootTable table = compile(new MemoryConfiguration().createSection("table", tableMap));
+            if (table != null) tables.add(table);
+        }
+        return List.copyOf(tables);
+    }
+
+    private static @Nullable LootTable compile(ConfigurationSection section) {
+        List<Entry> entries = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+
+        for (Map<?, ?> entryMap : section.getMapList("entries")) {
+            ConfigurationSection entrySection = new MemoryConfiguration().createSection("entry", entryMap);
+            double weight = entrySection.getDouble("weight", 1.0);
+            if (weight <= 0) continue;
+
+            Entry entry = compileEntry(entrySection);
+            if (entry == null) continue;
+            entries.add(entry);
+            weights.add(weight);
+        }
+        if (entries.isEmpty()) return null;
+
+        double[] weightArray = weights.stream().mapToDouble(Double::doubleValue).toArray();
+        return new LootTable(section.getDouble("chance", 1.0), new AliasTable(weightArray), entries.toArray(Entry[]::new));
+    }
+
+    private static @Nullable Entry compileEntry(ConfigurationSection section) {
+        String head = section.getString("head");
+        if (head != null) {
+            return new Entry(head.equalsIgnoreCase(SELF) ? SELF : head, null, null);
+        }
+
+        ConfigurationSection item = section.getConfigurationSection("item");
+        if (item != null) {
+            Material material = Material.matchMaterial(item.getString("type", ""));
+            if (material == null || !material.isItem() || material.isAir()) return null;
+            return new Entry(null, null, new ItemStack(material, Math.max(1, item.getInt("amount", 1))));
+        }
+
+        // Weight only: nothing drops
+        return new Entry(null, null, null);
+    }
+
+    /**
+     * Resolves the head entries of tables against a catalog being compiled.
+     * Entries naming a head that does not exist roll nothing.
+     *
+     * @param tables   tables from {@link #compileAll}
+     * @param self     the rule that {@code head: self} refers to
+     * @param resolver looks up a catalog rule by drop key and variant key (may return {@code null})
+     * @return the resolved tables
+     */
+    static List<LootTable> resolve(List<LootTable> tables, HeadRule self, BiFunction<String, String, HeadRule> resolver) {
+        if (tables.isEmpty()) return tables;
+
+        List<LootTable> resolved = new ArrayList<>(tables.size());
+        for (LootTable table : tables) {
+            Entry[] entries = table.entries.clone();
+            for (int i = 0; i < entries.length; i++) {
+                String ref = entries[i].headRef();
+                if (ref == null) continue;
+
+                HeadRule rule;
+                if (ref.equals(SELF)) {
+                    rule = self;
+                } else {
+                    int slash = ref.indexOf('/');
+                    rule = slash < 0
+                            ? resolver.apply(ref.toUpperCase(Locale.ROOT), null)
+                            : resolver.apply(ref.substring(0, slash).toUpperCase(Locale.ROOT), ref.substring(slash + 1).toLowerCase(Locale.ROOT));
+                }
+                entries[i] = new Entry(ref, rule, null);
+            }
+            resolved.add(new LootTable(table.chance, table.alias, entries));
+        }
+        return List.copyOf(resolved);
+    }
+
+    /**
+     * Rolls the table once.
+     *
+     * @param headFactory creates a head ItemStack for a rule
+     * @return the item won, or {@code null} if the table did not roll or rolled nothing
+     */
+    public @Nullable ItemStack roll(Function<HeadRule, ItemStack> headFactory) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (chance < 1.0 && random.nextDouble() >= chance) return null;
+
+        Entry entry = entries[alias.sample(random)];
+        if (entry.head() != null) return headFactory.apply(entry.head());
+        if (entry.item() != null) return entry.item().clone();
+        return null;
+    }
+}
@@ -0,0 +1,98 @@
+package nu.nerd.catalog;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Conversions between the forms a head texture appears in: the base64 {@code textures}
+ * profile property, the texture URL, and the texture id (the hash at the end of the URL).
+ * <p>
+ * The catalog stores each texture as its lower-case texture id, and rebuilds URLs and the
+ * base64 property on demand.
+ */
+public final class Textures {
+
+    /** Prefix of every texture URL served by Mojang */
+    public static final String URL_PREFIX = "http://textures.minecraft.net/texture/";
+
+    private static final String URL_MARKER = "\"url\"";
+
+    private Textures() {}
+
+    /**
+     * Extracts the texture id from a texture URL.
+     *
+     * @param url a texture URL
+     * @return the lower-case texture id, or {@code null} if the URL has no path
+     */
+    public static @Nullable String idFromUrl(String url) {
+        int slash = url.lastIndexOf('/');
+        if (slash < 0 || slash == url.length() - 1) return null;
+        return url.substring(slash + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Decodes a base64 {@code textures} property and extracts the skin's texture id.
+     *
+     * @param base64 the base64 property value
+     * @return the lower-case texture id, or {@code null} if the value does not decode to a skin URL
+     */
+    public static @Nullable String idFromBase64(String base64) {
+        String url = urlFromBase64(base64);
+        return url != null ? idFromUrl(url) : null;
+    }
+
+    /**
+     * Decodes a base64 {@code textures} property and extracts the skin URL.
+     *
+     * @param base64 the base64 property value
+     * @return the skin URL, or {@code null} if the value is not valid base64 or has no URL
+     */
+    public static @Nullable String urlFromBase64(String base64) {
+        String json;
+        try {
+            json = new String(Base64.getDecoder().decode(base64.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        int marker = json.indexOf(URL_MARKER);
+        if (marker < 0) return null;
+        int start = json.indexOf('"', json.indexOf(':', marker + URL_MARKER.length()) + 1);
+        int end = start < 0 ? -1 : json.indexOf('"', start + 1);
+        return end < 0 ? null : json.substring(start + 1, end);
+    }
+
+    /**
+     * Encodes a skin URL as a base64 {@code textures} property.
+     *
+     * @param url the skin URL
+     * @return the base64 property value
+     */
+    public static String base64FromUrl(String url) {
+        String json = "{\"textures\":{\"SKIN\":{\"url\":\"" + url + "\"}}}";
+        return Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encodes the canonical base64 {@code textures} property for a texture id, the one
+     * {@link #base64FromUrl} makes from the id's {@link #url}.
+     *
+     * @param id a texture id
+     * @return the base64 property value
+     */
+    public static String base64FromId(String id) {
+        return base64FromUrl(url(id));
+    }
+
+    /**
+     * @param id a texture id
+     * @return the texture URL for the id
+     */
+    public static String url(String id) {
+        return URL_PREFIX + id;
+    }
+}
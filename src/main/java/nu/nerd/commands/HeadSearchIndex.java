@@ -0,0 +1,250 @@
+package nu.nerd.commands;
+
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadRule;
+import nu.nerd.utils.PrefixTrie;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Full-text index over one catalog version, behind {@code /mobhead search} and fuzzy
+ * tab completion.
+ * <p>
+ * Each head is indexed by the words of its mob key, variant key and plain-text display
+ * name, weighted in that order. Query words match index words exactly, by prefix (through
+ * a {@link PrefixTrie} over the vocabulary), or fuzzily by trigram overlap (through a
+ * trigram-to-word index), so typos like {@code zomie} still find {@code zombie}. Only
+ * the vocabulary is matched fuzzily, which keeps a query to a few array walks over a
+ * few hundred words. Immutable, so safe to query from the async tab complete thread.
+ */
+final class HeadSearchIndex {
+
+    /** Minimum Dice coefficient of trigram sets for a fuzzy word match */
+    private static final double FUZZY_THRESHOLD = 0.4;
+
+    private static final float MOB_WEIGHT = 3;
+    private static final float VARIANT_WEIGHT = 2;
+    private static final float NAME_WEIGHT = 1;
+
+    private static final float EXACT = 1.0f;
+    private static final float PREFIX = 0.8f;
+    private static final float FUZZY = 0.7f;
+
+    /**
+     * One search result.
+     *
+     * @param rule  the matching head
+     * @param score its relevance; higher is better
+     */
+    record Hit(HeadRule rule, float score) {}
+
+    private final List<HeadRule> rules;
+    private final List<String> words;
+    private final Map<String, Integer> wordIds;
+    private final PrefixTrie vocabulary;
+    private final int[][] postings;       // word -> heads containing it
+    private final float[][] weights;      // word -> field weight per posting
+    private final Map<String, int[]> trigrams; // trigram -> words containing it
+    private final int[] trigramCounts;    // word -> number of distinct trigrams
+
+    /**
+     * Builds the index for a catalog.
+     *
+     * @param catalog the catalog to index
+     */
+    HeadSearchIndex(HeadCatalog catalog) {
+        this.rules = catalog.rules();
+
+        // word -> (head -> best field weight)
+        Map<String, Map<Integer, Float>> build = new LinkedHashMap<>();
+        for (int head = 0; head < rules.size(); head++) {
+            HeadRule rule = rules.get(head);
+            addWords(build, rule.dropKey(), head, MOB_WEIGHT);
+            if (rule.variantKey() != null) addWords(build, rule.variantKey(), head, VARIANT_WEIGHT);
+            if (rule.displayName() != null) {
+                addWords(build, MiniMessage.miniMessage().stripTags(rule.displayName()), head, NAME_WEIGHT);
+            }
+        }
+
+        this.words = List.copyOf(build.keySet());
+        this.wordIds = new HashMap<>();
+        this.postings = new int[words.size()][];
+        this.weights = new float[words.size()][];
+        this.trigramCounts = new int[words.size()];
+        Map<String, List<Integer>> trigramBuild = new HashMap<>();
+
+        for (int id = 0; id < words.size(); id++) {
+            String word = words.get(id);
+            wordIds.put(word, id);
+
+            Map<Integer, Float> heads = build.get(word);
+            postings[id] = new int[heads.size()];
+            weights[id] = new float[heads.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Float> entry : heads.entrySet()) {
+                postings[id][i] = entry.getKey();
+                weights[id][i++] = entry.getValue();
+            }
+
+            Set<String> wordTrigrams = trigrams(word);
+            trigramCounts[id] = wordTrigrams.size();
+            for (String trigram : wordTrigrams) {
+                trigramBuild.computeIfAbsent(trigram, t -> new ArrayList<>()).add(id);
+            }
+        }
+
+        this.trigrams = new HashMap<>();
+        trigramBuild.forEach((trigram, ids) -> trigrams.put(trigram, ids.stream().mapToInt(Integer::intValue).toArray()));
+        this.vocabulary = PrefixTrie.of(words);
+    }
+
+    /**
+     * Finds the heads matching a query, best first. Heads matching more of the query's
+     * words, in more important fields, rank higher.
+     *
+     * @param query the search text
+     * @param limit maximum number of results
+     * @return the ranked results (possibly empty)
+     */
+    List<Hit> search(String query, int limit) {
+        List<String> queryWords = tokenize(query);
+        if (queryWords.isEmpty()) return List.of();
+
+        float[] scores = new float[rules.size()];
+        float[] best = new float[rules.size()];
+        for (String queryWord : queryWords) {
+            Arrays.fill(best, 0);
+            float[] similarity = similarWords(queryWord);
+            for (int id = 0; id < similarity.length; id++) {
+                if (similarity[id] == 0) continue;
+                int[] heads = postings[id];
+                for (int i = 0; i < heads.length; i++) {
+                    best[heads[i]] = Math.max(best[heads[i]], similarity[id] * weights[id][i]);
+                }
+            }
+            for (int head = 0; head < scores.length; head++) scores[head] += best[head];
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        for (int head = 0; head < scores.length; head++) {
+            if (scores[head] > 0) hits.add(new Hit(rules.get(head), scores[head]));
+        }
+        // Ties keep catalog order, so the base head comes before its variants
+        hits.sort((a, b) -> Float.compare(b.score(), a.score()));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+     * Suggests vocabulary words for a partially typed word: prefix matches if there are
+     * any, otherwise fuzzy matches, best first.
+     *
+     * @param input the partial word
+     * @param limit maximum number of suggestions
+     * @return the suggestions (possibly empty)
+     */
+    List<String> suggestWords(String input, int limit) {
+        String word = input.toLowerCase(Locale.ROOT);
+        List<String> prefixed = vocabulary.complete(word);
+        if (!prefixed.isEmpty() || word.length() < 3) {
+            return prefixed.size() > limit ? prefixed.subList(0, limit) : prefixed;
+        }
+
+        float[] similarity = similarWords(word);
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < similarity.length; id++) {
+            if (similarity[id] > 0) ids.add(id);
+        }
+        ids.sort((a, b) -> Float.compare(similarity[b], similarity[a]));
+        List<String> suggestions = new ArrayList<>(Math.min(limit, ids.size()));
+        for (int i = 0; i < ids.size() && i < limit; i++) suggestions.add(words.get(ids.get(i)));
+        return suggestions;
+    }
+
+    /**
+     * Suggests mob keys for a mistyped mob, e.g. {@code ZOMBIE} for {@code zomie}.
+     *
+     * @param input the typed text
+     * @param limit maximum number of suggestions
+     * @return distinct mob keys, best first
+     */
+    List<String> suggestDrops(String input, int limit) {
+        Set<String> drops = new LinkedHashSet<>();
+        for (Hit hit : search(input, Integer.MAX_VALUE)) {
+            drops.add(hit.rule().dropKey());
+            if (drops.size() == limit) break;
+        }
+        return List.copyOf(drops);
+    }
+
+    /**
+     * Rates every vocabulary word against one query word: exact match, prefix match or
+     * trigram similarity.
+     *
+     * @return similarity per word id; 0 for words that do not match
+     */
+    private float[] similarWords(String queryWord) {
+        float[] similarity = new float[words.size()];
+
+        if (queryWord.length() >= 3) {
+            Set<String> queryTrigrams = trigrams(queryWord);
+            int[] shared = new int[words.size()];
+            for (String trigram : queryTrigrams) {
+                int[] ids = trigrams.get(trigram);
+                if (ids == null) continue;
+                for (int id : ids) shared[id]++;
+            }
+            for (int id = 0; id < shared.length; id++) {
+                if (shared[id] == 0) continue;
+                double dice = 2.0 * shared[id] / (queryTrigrams.size() + trigramCounts[id]);
+                if (dice >= FUZZY_THRESHOLD) similarity[id] = (float) (FUZZY * dice);
+            }
+        }
+
+        for (String word : vocabulary.complete(queryWord)) {
+            similarity[wordIds.get(word)] = PREFIX;
+        }
+        Integer exact = wordIds.get(queryWord);
+        if (exact != null) similarity[exact] = EXACT;
+        return similarity;
+    }
+
+    private static void addWords(Map<String, Map<Integer, Float>> build, @Nullable String text, int head, float weight) {
+        for (String word : tokenize(text)) {
+            build.computeIfAbsent(word, w -> new LinkedHashMap<>()).merge(head, weight, Math::max);
+        }
+    }
+
+    /**
+     * Splits text into lower-case words on anything that is not a letter or digit, so
+     * {@code ZOMBIE_VILLAGER} becomes {@code zombie} and {@code villager}.
+     */
+    private static List<String> tokenize(@Nullable String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) words.add(word);
+        }
+        return words;
+    }
+
+    /**
+     * Returns the distinct trigrams of a word padded with boundary markers, so short
+     * words and word starts and ends still produce trigrams.
+     */
+    private static Set<String> trigrams(String word) {
+        String padded = "$" + word + "$";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) trigrams.add(padded.substring(i, i + 3));
+        return trigrams;
+    }
+}
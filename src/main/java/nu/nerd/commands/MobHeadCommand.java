@@ -1,30 +1,55 @@
 package nu.nerd.commands;
 
+import com.destroystokyo.paper.event.server.AsyncTabCompleteEvent;
 import nu.nerd.CustomDrops;
+import nu.nerd.DamageAttribution;
+import nu.nerd.DropRateLimiter;
+import nu.nerd.HeadCatalogMenu;
+import nu.nerd.HeadCollectionTracker;
+import nu.nerd.HeadLeaderboards;
+import nu.nerd.HeadSerialTracker;
+import nu.nerd.ListenerProfiler;
 import nu.nerd.MobHeadFactory;
-import nu.nerd.utils.MobHeadUtils;
+import nu.nerd.NoteSoundThrottle;
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadRule;
+import nu.nerd.utils.PrefixTrie;
+import nu.nerd.utils.TopN;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.function.Function;
 
-@SuppressWarnings("ClassCanBeRecord")
-public class MobHeadCommand implements CommandExecutor, TabCompleter {
+public class MobHeadCommand implements CommandExecutor, TabCompleter, Listener {
+
+    private static final PrefixTrie SUBCOMMANDS = PrefixTrie.of(List.of("list", "menu", "give", "reload", "stats", "profile", "collection", "top", "search"));
+    private static final int SEARCH_RESULTS = 10;
+    private static final int SUGGESTIONS = 20;
+    private static final PrefixTrie TOP_BOARDS = PrefixTrie.of(List.of("players", "mobs", "rare"));
+    private static final Set<String> COMMAND_LABELS = Set.of(
+            "mobhead", "mh", "nerdnucustomdrops:mobhead", "nerdnucustomdrops:mh");
 
     private final CustomDrops plugin;
+    private final HeadCatalogMenu menu;
+    private volatile CompletionIndex completionIndex;
+    private MobHeadListPages listPages;
 
-    public MobHeadCommand(CustomDrops plugin) {
+    public MobHeadCommand(CustomDrops plugin, HeadCatalogMenu menu) {
         this.plugin = plugin;
+        this.menu = menu;
     }
 
     @Override
@@ -38,7 +63,7 @@ public class MobHeadCommand implements CommandExecutor, TabCompleter {
                 sender.sendMessage(Component.text("You do not have permission to view mob heads!", NamedTextColor.RED));
                 return true;
             }
-            listMobHeads(sender);
+            listMobHeads(sender, args);
             return true;
         }
 
@@ -57,11 +82,78 @@ public class MobHeadCommand implements CommandExecutor, TabCompleter {
                     sender.sendMessage(Component.text("You do not have permission to view mob heads!", NamedTextColor.RED));
                     yield true;
                 }
-                listMobHeads(sender);
+                listMobHeads(sender, args);
+                yield true;
+            }
+            case "menu" -> {
+                if (!sender.hasPermission("nerdnucustomdrops.mobhead.list")) {
+                    sender.sendMessage(Component.text("You do not have permission to view mob heads!", NamedTextColor.RED));
+                    yield true;
+                }
+                if (!(sender instanceof Player player)) {
+                    sender.sendMessage(Component.text("Only players can open the mob head menu.", NamedTextColor.RED));
+                    yield true;
+                }
+                int page = 1;
+                if (args.length >= 2) {
+                    try {
+                        page = Integer.parseInt(args[1]);
+                    } catch (NumberFormatException ignored) {}
+                }
+                menu.open(player, page);
+                yield true;
+            }
+            case "reload" -> {
+                if (!sender.hasPermission("nerdnucustomdrops.mobhead.reload")) {
+                    sender.sendMessage(Component.text("You do not have permission to reload mob heads!", NamedTextColor.RED));
+                    yield true;
+                }
+                plugin.reloadCatalog();
+                sender.sendMessage(Component.text("Mob head configuration reloaded.", NamedTextColor.GREEN));
+                yield true;
+            }
+            case "stats" -> {
+                if (!sender.hasPermission("nerdnucustomdrops.mobhead.stats")) {
+                    sender.sendMessage(Component.text("You do not have permission to view mob head stats!", NamedTextColor.RED));
+                    yield true;
+                }
+                sendStats(sender);
+                yield true;
+            }
+            case "profile" -> {
+                if (!sender.hasPermission("nerdnucustomdrops.mobhead.profile")) {
+                    sender.sendMessage(Component.text("You do not have permission to profile mob heads!", NamedTextColor.RED));
+                    yield true;
+                }
+                handleProfileSubcommand(sender, args);
+                yield true;
+            }
+            case "collection" -> {
+                if (!sender.hasPermission("nerdnucustomdrops.mobhead.collection")) {
+                    sender.sendMessage(Component.text("You do not have permission to view head collections!", NamedTextColor.RED));
+                    yield true;
+                }
+                sendCollection(sender, args);
+                yield true;
+            }
+            case "search" -> {
+                if (!sender.hasPermission("nerdnucustomdrops.mobhead.list")) {
+                    sender.sendMessage(Component.text("You do not have permission to view mob heads!", NamedTextColor.RED));
+                    yield true;
+                }
+                searchMobHeads(sender, args);
+                yield true;
+            }
+            case "top" -> {
+                if (!sender.hasPermission("nerdnucustomdrops.mobhead.top")) {
+                    sender.sendMessage(Component.text("You do not have permission to view head leaderboards!", NamedTextColor.RED));
+                    yield true;
+                }
+                sendTop(sender, args);
                 yield true;
             }
             default -> {
-                sender.sendMessage(Component.text("Unknown subcommand. Available: list, give", NamedTextColor.RED));
+                sender.sendMessage(Component.text("Unknown subcommand. Available: list, menu, give, reload, stats, profile, collection, top, search", NamedTextColor.RED));
                 yield true;
             }
         };
@@ -105,46 +197,30 @@ public class MobHeadCommand implements CommandExecutor, TabCompleter {
         String dropKey = dropArg.toUpperCase(Locale.ROOT);
         String variantKey = (variantArg != null) ? variantArg.toLowerCase(Locale.ROOT) : null;
 
-        ConfigurationSection dropsSection = plugin.getConfig().getConfigurationSection("drops");
-        if (dropsSection == null) {
+        HeadCatalog catalog = plugin.getCatalog();
+        if (catalog.dropKeys().isEmpty()) {
             sender.sendMessage(Component.text("No mob drop configuration found!", NamedTextColor.RED));
             return true;
         }
 
         // Verify drop exists
-        ConfigurationSection dropSection = dropsSection.getConfigurationSection(dropKey);
-        if (dropSection == null) {
+        if (!catalog.hasDrop(dropKey)) {
             sender.sendMessage(Component.text("No drop found: " + dropArg, NamedTextColor.RED));
             return true;
         }
 
         // If variant specified, verify it exists under the drop
-        if (variantKey != null) {
-            ConfigurationSection variants = dropSection.getConfigurationSection("variants");
-            if (variants == null || !variants.contains(variantKey)) {
-                sender.sendMessage(Component.text("Variant not found for " + dropArg + ": " + variantArg, NamedTextColor.RED));
-                return true;
-            }
-        }
-
-        // Create fake entity (with variant PDC if applicable)
-        org.bukkit.entity.Entity fakeEntity;
-        if (variantKey != null) {
-            fakeEntity = MobHeadUtils.createFakeEntity(dropKey, variantKey);
-        } else {
-            fakeEntity = MobHeadUtils.createFakeEntity(dropKey);
-        }
-
-        if (fakeEntity == null) {
-            sender.sendMessage(Component.text("Failed to create entity for: " + dropArg, NamedTextColor.RED));
+        if (variantKey != null && catalog.exactRule(dropKey, variantKey) == null) {
+            sender.sendMessage(Component.text("Variant not found for " + dropArg + ": " + variantArg, NamedTextColor.RED));
             return true;
         }
 
-        var head = MobHeadFactory.createHeadFor(fakeEntity, plugin.getConfig(), plugin.getSlf4jLogger());
-        if (head == null) {
+        HeadRule rule = catalog.rule(dropKey, variantKey);
+        if (rule == null) {
             sender.sendMessage(Component.text("Failed to generate head for: " + dropArg + (variantKey != null ? " (" + variantArg + ")" : ""), NamedTextColor.RED));
             return true;
         }
+        var head = MobHeadFactory.issueHead(rule, "give");
 
         // Give the head, drop if inventory full
         var leftover = target.getInventory().addItem(head);
@@ -160,24 +236,260 @@ public class MobHeadCommand implements CommandExecutor, TabCompleter {
         return true;
     }
 
-    private void listMobHeads(CommandSender sender) {
-        ConfigurationSection drops = plugin.getConfig().getConfigurationSection("drops");
-        if (drops == null) {
+    /**
+     * Sends runtime counters used to tune the drop settings.
+     *
+     * @param sender the recipient
+     */
+    private void sendStats(CommandSender sender) {
+        HeadCatalog catalog = plugin.getCatalog();
+        sender.sendMessage(Component.text("Head catalog: version " + catalog.version() + ", " + catalog.rules().size()
+                + " heads, ~" + catalog.sharedBytes() / 1024 + " KB of duplicate strings shared", NamedTextColor.GREEN));
+
+        DropRateLimiter limiter = plugin.getRateLimiter();
+        sender.sendMessage(Component.text("Drop rate limiter: " + (limiter.isEnabled() ? "enabled" : "disabled"), NamedTextColor.GREEN));
+        sender.sendMessage(Component.text("- Allowed rolls: " + limiter.allowed(), NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("- Limited by chunk: " + limiter.limitedByChunk(), NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("- Limited by player: " + limiter.limitedByPlayer(), NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("- Tracked buckets: " + limiter.trackedBuckets(), NamedTextColor.YELLOW));
+
+        NoteSoundThrottle throttle = plugin.getNoteSoundThrottle();
+        sender.sendMessage(Component.text("Note block head sounds:", NamedTextColor.GREEN));
+        sender.sendMessage(Component.text("- Allowed: " + throttle.played(), NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("- Throttled by block: " + throttle.throttledByBlock(), NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("- Throttled by chunk: " + throttle.throttledByChunk(), NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("- Tracked entries: " + throttle.trackedEntries(), NamedTextColor.YELLOW));
+
+        DamageAttribution attribution = plugin.getDamageAttribution();
+        sender.sendMessage(Component.text("Damage attribution (" + attribution.mode().name().toLowerCase(Locale.ROOT) + "):", NamedTextColor.GREEN));
+        sender.sendMessage(Component.text("- Attributed kills: " + attribution.attributed(), NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("- Went to someone other than the last hitter: " + attribution.changedKiller(), NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("- Open damage ledgers: " + attribution.trackedMobs(), NamedTextColor.YELLOW));
+
+        HeadSerialTracker serials = plugin.getSerialTracker();
+        sender.sendMessage(Component.text("Head serials: " + (serials != null ? "tracked" : "not tracked"), NamedTextColor.GREEN));
+        if (serials != null) {
+            sender.sendMessage(Component.text("- Issued: " + serials.issued(), NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text("- Placements: " + serials.placements(), NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text("- Log reads: " + serials.logReads(), NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text("- Confirmed duplicates: " + serials.duplicates(), NamedTextColor.YELLOW));
+            sender.sendMessage(Component.text("- Log segments: " + serials.segments(), NamedTextColor.YELLOW));
+        }
+    }
+
+    /**
+     * Shows a player's head collection: overall progress, progress per mob, and the
+     * heads they were first on the server to collect.
+     * Allowed forms:
+     * /mobhead collection
+     * /mobhead collection <player>
+     *
+     * @param sender the recipient
+     * @param args   the command arguments; {@code args[1]} is the optional online player
+     */
+    private void sendCollection(CommandSender sender, String[] args) {
+        Player target;
+        if (args.length >= 2) {
+            target = Bukkit.getPlayerExact(args[1]);
+            if (target == null) {
+                sender.sendMessage(Component.text("Player not online: " + args[1], NamedTextColor.RED));
+                return;
+            }
+        } else if (sender instanceof Player player) {
+            target = player;
+        } else {
+            sender.sendMessage(Component.text("Console must specify a player: /mobhead collection <player>", NamedTextColor.YELLOW));
+            return;
+        }
+
+        HeadCatalog catalog = plugin.getCatalog();
+        HeadCollectionTracker collections = plugin.getCollections();
+        long[] bits = collections.collection(target);
+
+        // Count per mob in catalog order, so variants of one mob are adjacent
+        List<Component> lines = new ArrayList<>();
+        int collected = 0;
+        int total = 0;
+        int mobCollected = 0;
+        int mobTotal = 0;
+        String currentDrop = null;
+        for (HeadRule rule : catalog.rules()) {
+            if (!rule.dropKey().equals(currentDrop)) {
+                if (mobCollected > 0) lines.add(collectionLine(currentDrop, mobCollected, mobTotal));
+                currentDrop = rule.dropKey();
+                mobCollected = 0;
+                mobTotal = 0;
+            }
+            boolean has = collections.has(bits, rule.toString());
+            if (has) {
+                collected++;
+                mobCollected++;
+            }
+            total++;
+            mobTotal++;
+        }
+        if (mobCollected > 0) lines.add(collectionLine(currentDrop, mobCollected, mobTotal));
+
+        int percent = total > 0 ? collected * 100 / total : 0;
+        sender.sendMessage(Component.text("Head collection of " + target.getName() + ": " + collected + "/" + total
+                + " (" + percent + "%)", NamedTextColor.GREEN));
+        lines.forEach(sender::sendMessage);
+
+        List<String> firsts = collections.firsts(target.getUniqueId());
+        if (!firsts.isEmpty()) {
+            sender.sendMessage(Component.text("First on the server to collect: " + String.join(", ", firsts), NamedTextColor.GOLD));
+        }
+    }
+
+    private static Component collectionLine(String dropKey, int collected, int total) {
+        return Component.text("- " + dropKey + ": " + collected + "/" + total,
+                collected == total ? NamedTextColor.GREEN : NamedTextColor.YELLOW);
+    }
+
+    /**
+     * Sends the best matches for a search, each clickable to get the head like in
+     * {@code /mobhead list}.
+     * Allowed forms:
+     * /mobhead search <text>
+     *
+     * @param sender the recipient
+     * @param args   the command arguments; everything after {@code search} is the query
+     */
+    private void searchMobHeads(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(Component.text("Usage: /mobhead search <text>", NamedTextColor.YELLOW));
+            return;
+        }
+        String query = String.join(" ", Arrays.copyOfRange(args, 1, args.length));
+        List<HeadSearchIndex.Hit> hits = completionIndex().search.search(query, SEARCH_RESULTS);
+        if (hits.isEmpty()) {
+            sender.sendMessage(Component.text("No mob heads match \"" + query + "\".", NamedTextColor.RED));
+            return;
+        }
+
+        sender.sendMessage(Component.text("Mob heads matching \"" + query + "\":", NamedTextColor.GREEN));
+        for (HeadSearchIndex.Hit hit : hits) {
+            HeadRule rule = hit.rule();
+            String name = rule.dropKey() + (rule.variantKey() != null ? " (" + rule.variantKey() + ")" : "");
+            String command = "/mobhead give " + rule.dropKey() + (rule.variantKey() != null ? " " + rule.variantKey() : "");
+            sender.sendMessage(Component.text("- " + name, rule.variantKey() != null ? NamedTextColor.AQUA : NamedTextColor.YELLOW)
+                    .hoverEvent(HoverEvent.showText(Component.text("Click to get a " + name + " head", NamedTextColor.GRAY)))
+                    .clickEvent(ClickEvent.runCommand(command)));
+        }
+    }
+
+    /**
+     * Shows the head leaderboards, straight from the in-memory top lists.
+     * Allowed forms:
+     * /mobhead top [players|mobs|rare]
+     *
+     * @param sender the recipient
+     * @param args   the command arguments; {@code args[1]} optionally picks one board
+     */
+    private void sendTop(CommandSender sender, String[] args) {
+        String board = args.length >= 2 ? args[1].toLowerCase(Locale.ROOT) : "all";
+        if (!TOP_BOARDS.contains(board) && !board.equals("all")) {
+            sender.sendMessage(Component.text("Usage: /mobhead top [players|mobs|rare]", NamedTextColor.YELLOW));
+            return;
+        }
+        HeadLeaderboards leaderboards = plugin.getLeaderboards();
+
+        if (board.equals("all") || board.equals("players")) {
+            sender.sendMessage(Component.text("Most heads earned:", NamedTextColor.GREEN));
+            sendRanking(sender, leaderboards.topPlayers(), entry -> leaderboards.name(entry.key()) + ": " + entry.score());
+        }
+        if (board.equals("all") || board.equals("mobs")) {
+            sender.sendMessage(Component.text("Most dropped heads:", NamedTextColor.GREEN));
+            sendRanking(sender, leaderboards.topMobs(), entry -> entry.key() + ": " + entry.score());
+        }
+        if (board.equals("all") || board.equals("rare")) {
+            sender.sendMessage(Component.text("Rarest drops this week:", NamedTextColor.GREEN));
+            sendRanking(sender, leaderboards.rarestThisWeek(),
+                    entry -> entry.key() + ": 1 in " + entry.score() + " (" + leaderboards.rarestBy(entry.key()) + ")");
+        }
+    }
+
+    private static <K> void sendRanking(CommandSender sender, List<TopN.Entry<K>> entries,
+                                        Function<TopN.Entry<K>, String> format) {
+        if (entries.isEmpty()) {
+            sender.sendMessage(Component.text("- Nothing yet", NamedTextColor.GRAY));
+            return;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            sender.sendMessage(Component.text((i + 1) + ". " + format.apply(entries.get(i)), NamedTextColor.YELLOW));
+        }
+    }
+
+    /**
+     * Starts or stops a handler profile.
+     * Allowed forms:
+     * /mobhead profile [ticks]
+     * /mobhead profile stop
+     *
+     * @param sender the sender, who receives the summary
+     * @param args   the command arguments
+     */
+    private void handleProfileSubcommand(CommandSender sender, String[] args) {
+        ListenerProfiler profiler = plugin.getProfiler();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("stop")) {
+            if (!profiler.isRunning()) {
+                sender.sendMessage(Component.text("No profile is running.", NamedTextColor.YELLOW));
+                return;
+            }
+            profiler.stop();
+            return;
+        }
+
+        int ticks = ListenerProfiler.DEFAULT_TICKS;
+        if (args.length >= 2) {
+            try {
+                ticks = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                ticks = -1;
+            }
+            if (ticks < 1 || ticks > ListenerProfiler.MAX_TICKS) {
+                sender.sendMessage(Component.text("Usage: /mobhead profile [1-" + ListenerProfiler.MAX_TICKS + " ticks|stop]", NamedTextColor.YELLOW));
+                return;
+            }
+        }
+
+        if (!profiler.start(sender, ticks)) {
+            sender.sendMessage(Component.text("A profile is already running.", NamedTextColor.RED));
+            return;
+        }
+        sender.sendMessage(Component.text("Profiling mob head handlers for " + ticks + " ticks...", NamedTextColor.GREEN));
+    }
+
+    /**
+     * Sends one page of the head listing. Pages are rendered once per catalog
+     * version and reused until the catalog is reloaded.
+     *
+     * @param sender the recipient
+     * @param args   the command arguments; {@code args[1]} is the optional page number
+     */
+    private void listMobHeads(CommandSender sender, String[] args) {
+        HeadCatalog catalog = plugin.getCatalog();
+        if (catalog.dropKeys().isEmpty()) {
             sender.sendMessage(Component.text("No mob drop configuration found!", NamedTextColor.RED));
             return;
         }
 
-        sender.sendMessage(Component.text("Available mob heads:", NamedTextColor.GREEN));
-        for (String mob : drops.getKeys(false)) {
-            sender.sendMessage(Component.text("- " + mob, NamedTextColor.YELLOW));
-            ConfigurationSection dropSection = drops.getConfigurationSection(mob);
-            ConfigurationSection variants = dropSection != null ? dropSection.getConfigurationSection("variants") : null;
-            if (variants != null) {
-                for (String variant : variants.getKeys(false)) {
-                    sender.sendMessage(Component.text("  - " + variant, NamedTextColor.AQUA));
-                }
+        int page = 1;
+        if (args.length >= 2) {
+            try {
+                page = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                sender.sendMessage(Component.text("Usage: /mobhead list [page]", NamedTextColor.YELLOW));
+                return;
             }
         }
+
+        MobHeadListPages pages = listPages;
+        if (pages == null || pages.version() != catalog.version()) {
+            pages = MobHeadListPages.render(catalog);
+            listPages = pages;
+        }
+        sender.sendMessage(pages.page(page));
     }
 
     @Override
@@ -185,90 +497,150 @@ public class MobHeadCommand implements CommandExecutor, TabCompleter {
                                                 @NotNull Command command,
                                                 @NotNull String alias,
                                                 String[] args) {
+        return complete(args);
+    }
+
+    /**
+     * Answers tab completion for {@code /mobhead} off the main thread using Paper's
+     * {@link AsyncTabCompleteEvent}. The synchronous {@link #onTabComplete} path is
+     * only used if this event is not handled.
+     *
+     * @param event the async tab complete event
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onAsyncTabComplete(AsyncTabCompleteEvent event) {
+        if (!event.isCommand() || event.isHandled()) return;
+
+        String buffer = event.getBuffer();
+        int labelStart = buffer.startsWith("/") ? 1 : 0;
+        int labelEnd = buffer.indexOf(' ', labelStart);
+        if (labelEnd < 0) return;
+
+        String label = buffer.substring(labelStart, labelEnd).toLowerCase(Locale.ROOT);
+        if (!COMMAND_LABELS.contains(label)) return;
+        if (!event.getSender().hasPermission("nerdnucustomdrops.mobhead")) return;
+
+        String[] args = buffer.substring(labelEnd + 1).split(" ", -1);
+        event.setCompletions(complete(args));
+        event.setHandled(true);
+    }
 
+    /**
+     * Computes completions for the given arguments from the precompiled tries.
+     * Safe to call from any thread.
+     *
+     * @param args the command arguments typed so far (last one may be empty)
+     * @return sorted suggestions; usually an immutable slice of a trie
+     */
+    private List<String> complete(String[] args) {
         // Subcommands
         if (args.length == 1) {
-            return Stream.of("list", "give")
-                    .filter(s -> s.toLowerCase(Locale.ROOT).startsWith(args[0].toLowerCase(Locale.ROOT)))
-                    .sorted()
-                    .toList();
+            return SUBCOMMANDS.complete(args[0]);
+        }
+        if (args[0].equalsIgnoreCase("search")) {
+            return completionIndex().search.suggestWords(args[args.length - 1], SUGGESTIONS);
+        }
+        if (args[0].equalsIgnoreCase("top")) {
+            return args.length == 2 ? TOP_BOARDS.complete(args[1]) : List.of();
         }
+        if (args[0].equalsIgnoreCase("collection")) {
+            return args.length == 2 ? onlinePlayers(args[1]) : List.of();
+        }
+        if (!args[0].equalsIgnoreCase("give")) return List.of();
+
+        CompletionIndex index = completionIndex();
 
         // args.length == 2: could be player OR drop -> suggest both players and drops
-        if (args.length == 2 && args[0].equalsIgnoreCase("give")) {
-            String input = args[1].toLowerCase(Locale.ROOT);
-            List<String> suggestions = new ArrayList<>();
-
-            // players
-            Bukkit.getOnlinePlayers().stream()
-                    .map(Player::getName)
-                    .filter(n -> n.toLowerCase(Locale.ROOT).startsWith(input))
-                    .sorted()
-                    .forEach(suggestions::add);
-
-            // drops
-            ConfigurationSection drops = plugin.getConfig().getConfigurationSection("drops");
-            if (drops != null) {
-                drops.getKeys(false).stream()
-                        .filter(k -> k.toLowerCase(Locale.ROOT).startsWith(input))
-                        .sorted()
-                        .forEach(suggestions::add);
-            }
+        if (args.length == 2) {
+            String input = args[1];
+            List<String> drops = index.completeDrops(input);
+
+            List<String> players = onlinePlayers(input);
+            if (players.isEmpty()) return drops;
 
-            return suggestions;
+            players.addAll(drops);
+            return players;
         }
 
         // args.length == 3:
-        // - if args[1] is a player -> suggest drops
-        // - otherwise args[1] is a drop -> suggest variants for that drop (3rd arg is variant)
-        if (args.length == 3 && args[0].equalsIgnoreCase("give")) {
-            String firstAfterGive = args[1];
-            Player maybePlayer = Bukkit.getPlayerExact(firstAfterGive);
-            ConfigurationSection drops = plugin.getConfig().getConfigurationSection("drops");
-            if (drops == null) return Collections.emptyList();
-
-            if (maybePlayer != null) {
-                // player was specified -> suggest drops
-                String input = args[2].toLowerCase(Locale.ROOT);
-                return drops.getKeys(false).stream()
-                        .filter(k -> k.toLowerCase(Locale.ROOT).startsWith(input))
-                        .sorted()
-                        .toList();
-            } else {
-                // player omitted -> args[1] is drop, args[2] should be variant -> suggest variants
-                ConfigurationSection dropSection = drops.getConfigurationSection(firstAfterGive.toUpperCase(Locale.ROOT));
-                ConfigurationSection variants = dropSection != null ? dropSection.getConfigurationSection("variants") : null;
-                if (variants == null) return Collections.emptyList();
-
-                String input = args[2].toLowerCase(Locale.ROOT);
-                return variants.getKeys(false).stream()
-                        .filter(v -> v.toLowerCase(Locale.ROOT).startsWith(input))
-                        .sorted()
-                        .toList();
-            }
+        // - if args[1] is a drop -> suggest variants for that drop (3rd arg is variant)
+        // - otherwise args[1] is a player -> suggest drops
+        if (args.length == 3) {
+            return index.drops.contains(args[1])
+                    ? index.variants(args[1], args[2])
+                    : index.completeDrops(args[2]);
         }
 
         // args.length == 4:
-        // Only valid when firstAfterGive is a player -> args[2] is drop, args[3] is variant
-        if (args.length == 4 && args[0].equalsIgnoreCase("give")) {
-            String firstAfterGive = args[1];
-            Player maybePlayer = Bukkit.getPlayerExact(firstAfterGive);
-            if (maybePlayer == null) return Collections.emptyList();
+        // Only valid when args[1] is a player -> args[2] is drop, args[3] is variant
+        if (args.length == 4 && !index.drops.contains(args[1])) {
+            return index.variants(args[2], args[3]);
+        }
+
+        return List.of();
+    }
+
+    /**
+     * Returns the names of online players starting with the given input, sorted.
+     *
+     * @param input the partial name
+     * @return a mutable list of matching names
+     */
+    private static List<String> onlinePlayers(String input) {
+        List<String> players = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            String name = player.getName();
+            if (name.regionMatches(true, 0, input, 0, input.length())) players.add(name);
+        }
+        players.sort(String.CASE_INSENSITIVE_ORDER);
+        return players;
+    }
 
-            ConfigurationSection drops = plugin.getConfig().getConfigurationSection("drops");
-            if (drops == null) return Collections.emptyList();
+    /**
+     * Returns the completion index for the current catalog, rebuilding it only when
+     * the catalog version has changed since it was last built.
+     */
+    private CompletionIndex completionIndex() {
+        HeadCatalog catalog = plugin.getCatalog();
+        CompletionIndex index = completionIndex;
+        if (index == null || index.version != catalog.version()) {
+            index = new CompletionIndex(catalog);
+            completionIndex = index;
+        }
+        return index;
+    }
 
-            ConfigurationSection dropSection = drops.getConfigurationSection(args[2].toUpperCase(Locale.ROOT));
-            ConfigurationSection variants = dropSection != null ? dropSection.getConfigurationSection("variants") : null;
-            if (variants == null) return Collections.emptyList();
+    /**
+     * Prefix tries over drop keys and per-drop variant keys, plus the search index, for
+     * one catalog version.
+     */
+    private static final class CompletionIndex {
+        final long version;
+        final PrefixTrie drops;
+        final Map<String, PrefixTrie> variantsByDrop = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        final HeadSearchIndex search;
+
+        CompletionIndex(HeadCatalog catalog) {
+            this.version = catalog.version();
+            this.drops = PrefixTrie.of(catalog.dropKeys());
+            this.search = new HeadSearchIndex(catalog);
+            for (String dropKey : catalog.dropKeys()) {
+                List<String> variants = catalog.variantKeys(dropKey);
+                if (!variants.isEmpty()) variantsByDrop.put(dropKey, PrefixTrie.of(variants));
+            }
+        }
 
-            String input = args[3].toLowerCase(Locale.ROOT);
-            return variants.getKeys(false).stream()
-                    .filter(v -> v.toLowerCase(Locale.ROOT).startsWith(input))
-                    .sorted()
-                    .toList();
+        /**
+         * Completes a drop key by prefix, falling back to fuzzy matches for typos.
+         */
+        List<String> completeDrops(String input) {
+            List<String> matches = drops.complete(input);
+            return matches.isEmpty() && input.length() >= 3 ? search.suggestDrops(input, SUGGESTIONS) : matches;
         }
 
-        return Collections.emptyList();
+        List<String> variants(String dropKey, String input) {
+            PrefixTrie trie = variantsByDrop.get(dropKey);
+            return trie != null ? trie.complete(input) : List.of();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package nu.nerd.commands;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import nu.nerd.catalog.HeadCatalog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-rendered, paginated output of {@code /mobhead list} for one catalog version.
+ * <p>
+ * Every page is a single Adventure component (header, entries and navigation footer
+ * joined by newlines), so showing a page costs one chat packet. Each entry is clickable
+ * and runs {@code /mobhead give} for that head.
+ */
+final class MobHeadListPages {
+
+    /** Number of entry lines (mobs and variants) per page */
+    static final int PAGE_SIZE = 12;
+
+    private final long version;
+    private final List<Component> pages;
+
+    private MobHeadListPages(long version, List<Component> pages) {
+        this.version = version;
+        this.pages = pages;
+    }
+
+    /**
+     * Renders every page of the listing for the given catalog.
+     *
+     * @param catalog the catalog to render
+     * @return the rendered pages
+     */
+    static MobHeadListPages render(HeadCatalog catalog) {
+        List<Component> lines = new ArrayList<>();
+        for (String mob : catalog.dropKeys()) {
+            lines.add(entry("- " + mob, NamedTextColor.YELLOW, mob, "/mobhead give " + mob));
+            for (String variant : catalog.variantKeys(mob)) {
+                lines.add(entry("  - " + variant, NamedTextColor.AQUA, mob + " (" + variant + ")",
+                        "/mobhead give " + mob + " " + variant));
+            }
+        }
+
+        int pageCount = Math.max(1, (lines.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        List<Component> pages = new ArrayList<>(pageCount);
+        for (int page = 1; page <= pageCount; page++) {
+            TextComponent.Builder builder = Component.text()
+                    .append(Component.text("Available mob heads (page " + page + "/" + pageCount + "):", NamedTextColor.GREEN));
+
+            int from = (page - 1) * PAGE_SIZE;
+            int to = Math.min(lines.size(), from + PAGE_SIZE);
+            for (Component line : lines.subList(from, to)) {
+                builder.append(Component.newline()).append(line);
+            }
+
+            if (pageCount > 1) {
+                builder.append(Component.newline()).append(footer(page, pageCount));
+            }
+            pages.add(builder.build());
+        }
+
+        return new MobHeadListPages(catalog.version(), List.copyOf(pages));
+    }
+
+    /** @return the catalog version these pages were rendered from */
+    long version() {
+        return version;
+    }
+
+    /** @return the number of pages */
+    int pageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Returns a rendered page, clamped to the valid range.
+     *
+     * @param page 1-based page number
+     * @return the page component
+     */
+    Component page(int page) {
+        return pages.get(Math.clamp(page, 1, pages.size()) - 1);
+    }
+
+    private static Component entry(String text, NamedTextColor color, String headName, String command) {
+        return Component.text(text, color)
+                .hoverEvent(HoverEvent.showText(Component.text("Click to get a " + headName + " head", NamedTextColor.GRAY)))
+                .clickEvent(ClickEvent.runCommand(command));
+    }
+
+    private static Component footer(int page, int pageCount) {
+        Component previous = page > 1
+                ? Component.text("« Previous", NamedTextColor.GOLD).clickEvent(ClickEvent.runCommand("/mobhead list " + (page - 1)))
+                : Component.text("« Previous", NamedTextColor.DARK_GRAY);
+        Component next = page < pageCount
+                ? Component.text("Next »", NamedTextColor.GOLD).clickEvent(ClickEvent.runCommand("/mobhead list " + (page + 1)))
+                : Component.text("Next »", NamedTextColor.DARK_GRAY);
+        return Component.text().append(previous).append(Component.text(" | ", NamedTextColor.GRAY)).append(next).build();
+    }
+}
@@ -0,0 +1,31 @@
+package nu.nerd.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Creation of a custom mob head ItemStack from its catalog rule.
+ */
+@Name("nu.nerd.HeadBuild")
+@Label("Head Build")
+@Category({"NerdNuCustomDrops"})
+@Description("Creation of a custom mob head ItemStack from its catalog rule.")
+@StackTrace(false)
+@Threshold("100 us")
+public final class HeadBuildEvent extends Event {
+
+    @Label("Drop Key")
+    public String dropKey;
+
+    @Label("Variant")
+    public String variant;
+
+    @Label("Template Built")
+    @Description("Whether this call built the rule's template instead of cloning a cached one")
+    public boolean templateBuilt;
+}
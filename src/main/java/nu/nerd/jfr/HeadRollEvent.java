@@ -0,0 +1,34 @@
+package nu.nerd.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A head drop roll for a player kill, from rule lookup to delivery.
+ */
+@Name("nu.nerd.HeadRoll")
+@Label("Head Roll")
+@Category({"NerdNuCustomDrops"})
+@Description("A head drop roll for a player kill, from rule lookup to delivery.")
+@StackTrace(false)
+@Threshold("100 us")
+public final class HeadRollEvent extends Event {
+
+    @Label("Entity Type")
+    public String entityType;
+
+    @Label("Variant")
+    public String variant;
+
+    @Label("Outcome")
+    @Description("dropped, missed, no-rule, disallowed, conditions or rate-limited")
+    public String outcome;
+
+    @Label("Chance")
+    public double chance;
+}
@@ -0,0 +1,27 @@
+package nu.nerd.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Lookup of the head sound for a skull placed on a played note block.
+ */
+@Name("nu.nerd.NoteSoundLookup")
+@Label("Note Sound Lookup")
+@Category({"NerdNuCustomDrops"})
+@Description("Lookup of the head sound for a skull placed on a played note block.")
+@StackTrace(false)
+@Threshold("100 us")
+public final class NoteSoundLookupEvent extends Event {
+
+    @Label("Sound")
+    public String sound;
+
+    @Label("Matched")
+    public boolean matched;
+}
@@ -0,0 +1,27 @@
+package nu.nerd.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Creation of a player head dropped on a PvP or charged creeper death.
+ */
+@Name("nu.nerd.PlayerHeadBuild")
+@Label("Player Head Build")
+@Category({"NerdNuCustomDrops"})
+@Description("Creation of a player head dropped on a PvP or charged creeper death.")
+@StackTrace(false)
+@Threshold("0 ns")
+public final class PlayerHeadBuildEvent extends Event {
+
+    @Label("Player Name")
+    public String playerName;
+
+    @Label("Reason")
+    public String reason;
+}
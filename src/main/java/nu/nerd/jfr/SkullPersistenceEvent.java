@@ -0,0 +1,31 @@
+package nu.nerd.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Saving a placed custom head to its block, or restoring it when the block is broken.
+ */
+@Name("nu.nerd.SkullPersistence")
+@Label("Skull Persistence")
+@Category({"NerdNuCustomDrops"})
+@Description("Saving a placed custom head to its block, or restoring it when the block is broken.")
+@StackTrace(false)
+@Threshold("100 us")
+public final class SkullPersistenceEvent extends Event {
+
+    @Label("Action")
+    @Description("place or restore")
+    public String action;
+
+    @Label("Material")
+    public String material;
+
+    @Label("Success")
+    public boolean success;
+}
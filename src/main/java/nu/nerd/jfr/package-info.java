@@ -0,0 +1,10 @@
+/**
+ * Java Flight Recorder events for the plugin's hot paths.
+ * <p>
+ * Each event has a default threshold, so a recording only keeps the slow cases; override
+ * it per event (e.g. {@code nu.nerd.HeadRoll#threshold=0 ms}) in a {@code .jfc} settings
+ * file to capture everything. Callers fill in event fields only after
+ * {@link jdk.jfr.Event#shouldCommit()}, so instrumentation costs next to nothing while JFR
+ * is not recording.
+ */
+package nu.nerd.jfr;
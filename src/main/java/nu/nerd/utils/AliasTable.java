@@ -0,0 +1,80 @@
+package nu.nerd.utils;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Walker/Vose alias table for sampling from a discrete weighted distribution in
+ * constant time, however many outcomes there are.
+ * <p>
+ * Building the table is O(n). Each sample draws one uniform index and one uniform
+ * double, then either keeps the index or jumps to its alias.
+ */
+public final class AliasTable {
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * Builds an alias table from non-negative weights.
+     *
+     * @param weights outcome weights; need not sum to 1, but must have a positive sum
+     * @throws IllegalArgumentException if there are no weights, a weight is negative,
+     *                                  or all weights are zero
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) throw new IllegalArgumentException("No weights");
+
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight)) throw new IllegalArgumentException("Negative weight: " + weight);
+            total += weight;
+        }
+        if (total <= 0) throw new IllegalArgumentException("Weights sum to zero");
+
+        probability = new double[n];
+        alias = new int[n];
+
+        // Scale so the average bucket is exactly 1, then pair small buckets with large ones
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) small[smallCount++] = i;
+            else large[largeCount++] = i;
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) small[smallCount++] = more;
+            else large[largeCount++] = more;
+        }
+
+        // Leftovers are 1 up to rounding error
+        while (largeCount > 0) probability[large[--largeCount]] = 1.0;
+        while (smallCount > 0) probability[small[--smallCount]] = 1.0;
+    }
+
+    /**
+     * Draws an outcome index.
+     *
+     * @param random the random source
+     * @return an index into the weights the table was built from
+     */
+    public int sample(RandomGenerator random) {
+        int i = random.nextInt(probability.length);
+        return random.nextDouble() < probability[i] ? i : alias[i];
+    }
+
+    /** @return the number of outcomes */
+    public int size() {
+        return probability.length;
+    }
+}
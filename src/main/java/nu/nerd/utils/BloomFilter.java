@@ -0,0 +1,155 @@
+package nu.nerd.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Bloom filter over {@code long} keys, backed by a {@code long[]} bit set.
+ * <p>
+ * {@link #mightContain} never returns a false negative; false positives occur at
+ * roughly the rate the filter was sized for, as long as no more keys than expected
+ * are added. Each key is spread over {@code k} bits by double hashing a 64-bit mix
+ * of the key, so no allocation happens per key.
+ * <p>
+ * Not thread-safe.
+ */
+public final class BloomFilter {
+
+    private static final int MAGIC = 0x424C4F4D; // "BLOM"
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashes;
+
+    private BloomFilter(long[] words, int hashes) {
+        this.words = words;
+        this.bitCount = (long) words.length * Long.SIZE;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Creates an empty filter sized for the given number of keys and false positive rate.
+     *
+     * @param expectedKeys      number of keys the filter should hold
+     * @param falsePositiveRate target false positive rate, between 0 and 1 exclusive
+     * @return the new filter
+     * @throws IllegalArgumentException if either argument is out of range
+     */
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        if (expectedKeys <= 0) throw new IllegalArgumentException("Expected keys must be positive: " + expectedKeys);
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+
+        // m = -n ln p / (ln 2)^2 bits, k = m/n ln 2 hashes
+        double bits = -expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long wordCount = Math.max(1, (long) Math.ceil(bits / Long.SIZE));
+        if (wordCount > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Filter too large: " + (long) bits + " bits");
+        int hashes = Math.max(1, (int) Math.round(wordCount * Long.SIZE / (double) expectedKeys * Math.log(2)));
+        return new BloomFilter(new long[(int) wordCount], hashes);
+    }
+
+    /**
+     * Adds a key.
+     *
+     * @param key the key
+     * @return {@code true} if the filter changed, i.e. the key was definitely not present
+     *         before; {@code false} if it might have been
+     */
+    public boolean put(long key) {
+        long h1 = mix(key);
+        long h2 = mix(h1) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Checks whether a key might have been added.
+     *
+     * @param key the key
+     * @return {@code false} if the key was definitely never added
+     */
+    public boolean mightContain(long key) {
+        long h1 = mix(key);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of bits in the filter
+     */
+    public long bitCount() {
+        return bitCount;
+    }
+
+    /**
+     * @return the number of bits set per key
+     */
+    public int hashes() {
+        return hashes;
+    }
+
+    /**
+     * Returns whether this filter has the same size and hash count as another, i.e.
+     * whether both were created with the same parameters.
+     *
+     * @param other the filter to compare with
+     * @return {@code true} if the filters are compatible
+     */
+    public boolean sameShape(BloomFilter other) {
+        return bitCount == other.bitCount && hashes == other.hashes;
+    }
+
+    /**
+     * Writes the filter in a compact binary form readable by {@link #readFrom}.
+     *
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(hashes);
+        out.writeInt(words.length);
+        for (long word : words) out.writeLong(word);
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo}.
+     *
+     * @param in the input to read from
+     * @return the filter
+     * @throws IOException if reading fails or the data is not a filter
+     */
+    public static BloomFilter readFrom(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a Bloom filter");
+        int hashes = in.readInt();
+        int length = in.readInt();
+        if (hashes <= 0 || length <= 0) throw new IOException("Corrupt Bloom filter header");
+        long[] words = new long[length];
+        for (int i = 0; i < length; i++) words[i] = in.readLong();
+        return new BloomFilter(words, hashes);
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
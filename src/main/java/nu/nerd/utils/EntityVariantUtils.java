@@ -1,16 +1,32 @@
 package nu.nerd.utils;
 
+import io.papermc.paper.registry.RegistryAccess;
+import io.papermc.paper.registry.RegistryKey;
+import org.bukkit.DyeColor;
+import org.bukkit.Keyed;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
 import org.bukkit.entity.*;
 import org.jetbrains.annotations.Nullable;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
 
 /**
  * Utility class for retrieving variant or subtype identifiers for Minecraft entities.
  * <p>
- * This class provides a single method to determine a "variant" string for an entity.
- * Variants may include:
+ * This class determines a "variant" string for an entity. Variants may include:
  * <ul>
  *     <li>Color (e.g., Sheep, Horse)</li>
  *     <li>Behavior (e.g., Wolf angry, Bee angry)</li>
@@ -19,9 +35,107 @@ import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
  *     <li>Profession (e.g., Villager, ZombieVillager)</li>
  * </ul>
  * If an entity has no variant, the method returns {@code null}.
+ * <p>
+ * Every mob type with variants has one entry in a single table, which reads an entity's
+ * variant id, lists every id it can return and applies an id to an entity, so the three
+ * can never disagree.
  */
 public class EntityVariantUtils {
 
+    /**
+     * How the variants of one mob type are read, listed and applied.
+     *
+     * @param entityClass the entity interface of the mob type
+     * @param read        returns the entity's variant id
+     * @param ids         lists every id {@code read} can return
+     * @param apply       gives the entity the variant with an id, ignoring unknown ids
+     */
+    private record Variants<E extends Entity>(Class<E> entityClass, Function<E, String> read,
+                                              Supplier<Set<String>> ids, BiConsumer<E, String> apply) {
+
+        @Nullable String idOf(Entity entity) {
+            return entityClass.isInstance(entity) ? read.apply(entityClass.cast(entity)) : null;
+        }
+
+        void applyTo(Entity entity, String id) {
+            if (entityClass.isInstance(entity)) apply.accept(entityClass.cast(entity), id);
+        }
+    }
+
+    private static final Map<EntityType, Variants<?>> VARIANTS = new EnumMap<>(EntityType.class);
+
+    static {
+        VARIANTS.put(EntityType.WOLF, new Variants<>(Wolf.class,
+                wolf -> (wolf.isAngry() ? "angry_" : "") + wolf.getVariant().getKey().getKey(), // "pale", "angry_ashen", ...
+                () -> {
+                    Set<String> ids = new HashSet<>();
+                    for (Wolf.Variant variant : registry(RegistryKey.WOLF_VARIANT)) {
+                        ids.add(variant.getKey().getKey());
+                        ids.add("angry_" + variant.getKey().getKey());
+                    }
+                    return ids;
+                },
+                (wolf, id) -> {
+                    boolean angry = id.startsWith("angry_");
+                    Wolf.Variant variant = registry(RegistryKey.WOLF_VARIANT)
+                            .get(NamespacedKey.minecraft(angry ? id.substring("angry_".length()) : id));
+                    if (variant == null) return;
+                    wolf.setVariant(variant);
+                    wolf.setAngry(angry);
+                }));
+        VARIANTS.put(EntityType.AXOLOTL, enumVariants(Axolotl.class, Axolotl.Variant.class, Axolotl::getVariant, Axolotl::setVariant));
+        VARIANTS.put(EntityType.FROG, registryVariants(Frog.class, RegistryKey.FROG_VARIANT, Frog::getVariant, Frog::setVariant));
+        VARIANTS.put(EntityType.CHICKEN, registryVariants(Chicken.class, RegistryKey.CHICKEN_VARIANT, Chicken::getVariant, Chicken::setVariant));
+        VARIANTS.put(EntityType.COW, registryVariants(Cow.class, RegistryKey.COW_VARIANT, Cow::getVariant, Cow::setVariant));
+        VARIANTS.put(EntityType.PIG, registryVariants(Pig.class, RegistryKey.PIG_VARIANT, Pig::getVariant, Pig::setVariant));
+        VARIANTS.put(EntityType.MOOSHROOM, enumVariants(MushroomCow.class, MushroomCow.Variant.class, MushroomCow::getVariant, MushroomCow::setVariant));
+        VARIANTS.put(EntityType.PARROT, enumVariants(Parrot.class, Parrot.Variant.class, Parrot::getVariant, Parrot::setVariant));
+        VARIANTS.put(EntityType.SHEEP, new Variants<>(Sheep.class,
+                sheep -> {
+                    Component name = sheep.customName();
+                    if (name != null && "jeb_".equals(PlainTextComponentSerializer.plainText().serialize(name))) return "jeb_";
+                    return sheep.getColor() != null ? sheep.getColor().name().toLowerCase(Locale.ROOT) : null;
+                },
+                () -> {
+                    Set<String> ids = lowerCaseNames(DyeColor.class);
+                    ids.add("jeb_");
+                    return ids;
+                },
+                (sheep, id) -> {
+                    if (id.equals("jeb_")) sheep.customName(Component.text("jeb_"));
+                    else applyEnum(DyeColor.class, id, sheep::setColor);
+                }));
+        VARIANTS.put(EntityType.HORSE, enumVariants(Horse.class, Horse.Color.class, Horse::getColor, Horse::setColor));
+        // Trader llamas share the llama colors
+        Variants<Llama> llamas = enumVariants(Llama.class, Llama.Color.class, Llama::getColor, Llama::setColor);
+        VARIANTS.put(EntityType.LLAMA, llamas);
+        VARIANTS.put(EntityType.TRADER_LLAMA, llamas);
+        VARIANTS.put(EntityType.CAT, registryVariants(Cat.class, RegistryKey.CAT_VARIANT, Cat::getCatType, Cat::setCatType));
+        VARIANTS.put(EntityType.BEE, flagVariants(Bee.class, "angry", "calm", bee -> bee.getAnger() > 0,
+                (bee, angry) -> bee.setAnger(angry ? 100 : 0)));
+        VARIANTS.put(EntityType.FOX, enumVariants(Fox.class, Fox.Type.class, Fox::getFoxType, Fox::setFoxType));
+        VARIANTS.put(EntityType.GHAST, flagVariants(Ghast.class, "shooting", "idle", Ghast::isCharging, Ghast::setCharging));
+        VARIANTS.put(EntityType.GOAT, flagVariants(Goat.class, "screaming", "normal", Goat::isScreaming, Goat::setScreaming));
+        VARIANTS.put(EntityType.PANDA, enumVariants(Panda.class, Panda.Gene.class, Panda::getMainGene, Panda::setMainGene));
+        VARIANTS.put(EntityType.RABBIT, enumVariants(Rabbit.class, Rabbit.Type.class, Rabbit::getRabbitType, Rabbit::setRabbitType));
+        VARIANTS.put(EntityType.SNOW_GOLEM, flagVariants(Snowman.class, "derp", "normal", Snowman::isDerp, Snowman::setDerp));
+        VARIANTS.put(EntityType.STRIDER, flagVariants(Strider.class, "shivering", "normal", Strider::isShivering, Strider::setShivering));
+        VARIANTS.put(EntityType.VILLAGER, registryVariants(Villager.class, RegistryKey.VILLAGER_PROFESSION,
+                Villager::getProfession, Villager::setProfession));
+        Variants<ZombieVillager> zombieVillagers = registryVariants(ZombieVillager.class, RegistryKey.VILLAGER_PROFESSION,
+                ZombieVillager::getVillagerProfession, ZombieVillager::setVillagerProfession);
+        VARIANTS.put(EntityType.ZOMBIE_VILLAGER, new Variants<>(ZombieVillager.class,
+                zombieVillager -> zombieVillager.getVillagerProfession() != null
+                        ? zombieVillagers.read().apply(zombieVillager)
+                        : "nitwit", // fallback for no profession
+                () -> {
+                    Set<String> ids = zombieVillagers.ids().get();
+                    ids.add("nitwit");
+                    return ids;
+                },
+                zombieVillagers.apply()));
+    }
+
     /**
      * Returns a string representing the "variant" or subtype of the given entity.
      * <p>
@@ -39,77 +153,95 @@ public class EntityVariantUtils {
      *         or {@code null} if the entity has no variant
      */
     @Nullable
-    @SuppressWarnings("ConstantConditions")
     public static String getVariantId(Entity entity) {
-        if (entity instanceof Wolf wolf) {
-            String variant = wolf.getVariant().getKey().getKey(); // "pale", "ashen", "black", "chestnut"
-            if (wolf.isAngry()) variant = "angry_" + variant;
-            return variant;
-        } else if (entity instanceof Axolotl axolotl) {
-            return axolotl.getVariant().toString().toLowerCase();
-        } else if (entity instanceof Frog frog) {
-            return frog.getVariant().toString().toLowerCase();
-        } else if (entity instanceof Chicken chicken) {
-            return chicken.getVariant().getKey().getKey(); // cold, temperate, warm
-        } else if (entity instanceof Cow cow) {
-            return cow.getVariant().getKey().getKey(); // cold, temperate, warm
-        } else if (entity instanceof Pig pig) {
-            return pig.getVariant().getKey().getKey(); // cold, temperate, warm
-        } else if (entity instanceof MushroomCow mooshroom) {
-            return mooshroom.getVariant().toString().toLowerCase();
-        } else if (entity instanceof Parrot parrot) {
-            return parrot.getVariant().toString().toLowerCase();
-        } else if (entity instanceof Sheep sheep) {
-            Component nameComponent = sheep.customName();
-            String name = nameComponent != null ? PlainTextComponentSerializer.plainText().serialize(nameComponent) : null;
-            if ("jeb_".equals(name)) {
-                return "jeb_";
-            }
-            return sheep.getColor() != null ? sheep.getColor().name().toLowerCase() : null;
-        } else if (entity instanceof Horse horse) {
-            return horse.getColor().name().toLowerCase();
-        } else if (entity instanceof Llama llama) {
-            // For normal Llamas:
-            if (llama.getType() == EntityType.LLAMA) {
-                return llama.getColor().name().toLowerCase(); // "brown", "creamy", etc.
-            }
-            // For Trader Llamas:
-            else if (llama.getType() == EntityType.TRADER_LLAMA) {
-                return llama.getColor().name().toLowerCase(); // "brown", "creamy", etc.
-            }
-        } else if (entity instanceof Cat cat) {
-            return cat.getCatType().getKey().getKey();
-        } else if (entity instanceof Bee bee) {
-            return bee.getAnger() > 0 ? "angry" : "calm";
-        } else if (entity instanceof Fox fox) {
-            return fox.getFoxType().toString().toLowerCase();
-        } else if (entity instanceof Ghast ghast) {
-            return ghast.isCharging() ? "shooting" : "idle";
-        } else if (entity instanceof Goat goat) {
-            return goat.isScreaming() ? "screaming" : "normal";
-        } else if (entity instanceof Panda panda) {
-                return panda.getMainGene().toString().toLowerCase();
-        } else if (entity instanceof Rabbit rabbit) {
-                return rabbit.getRabbitType().toString().toLowerCase();
-        } else if (entity instanceof Snowman snowman) {
-                return snowman.isDerp() ? "derp" : "normal";
-        } else if (entity instanceof Strider strider) {
-                return strider.isShivering() ? "shivering" : "normal";
-        } else if (entity instanceof Villager villager) {
-                return villager.getProfession().getKey().getKey();
-        } else if (entity instanceof ZombieVillager zombieVillager) {
-            Villager.Profession profession = zombieVillager.getVillagerProfession();
-
-            if (profession == null) {
-                return "nitwit"; // fallback for no profession
-            }
-
-            return profession.getKey().getKey();
-        }
+        Variants<?> variants = VARIANTS.get(entity.getType());
+        return variants != null ? variants.idOf(entity) : null;
+    }
 
+    /**
+     * Returns every variant id {@link #getVariantId} can return for an entity type.
+     *
+     * @param type the entity type
+     * @return the known variant ids, or {@code null} if the type has no variants
+     */
+    @Nullable
+    public static Set<String> knownVariantIds(EntityType type) {
+        Variants<?> variants = VARIANTS.get(type);
+        return variants != null ? variants.ids().get() : null;
+    }
 
-        // Return null if entity has no variant
-        return null;
-        }
+    /**
+     * Gives an entity the variant with the given id, as returned by {@link #getVariantId}.
+     * Unknown ids and mob types without variants are ignored.
+     *
+     * @param entity the entity to change
+     * @param id     the variant id, in any case
+     */
+    public static void applyVariant(Entity entity, String id) {
+        Variants<?> variants = VARIANTS.get(entity.getType());
+        if (variants != null) variants.applyTo(entity, id.toLowerCase(Locale.ROOT));
+    }
+
+    // ----------------------
+    // TABLE ENTRIES
+    // ----------------------
+
+    /** Variants named after the constants of an enum, in lower case. */
+    private static <E extends Entity, T extends Enum<T>> Variants<E> enumVariants(
+            Class<E> entityClass, Class<T> enumClass, Function<E, T> getter, BiConsumer<E, T> setter) {
+        return new Variants<>(entityClass,
+                entity -> {
+                    T value = getter.apply(entity);
+                    return value != null ? value.name().toLowerCase(Locale.ROOT) : null;
+                },
+                () -> lowerCaseNames(enumClass),
+                (entity, id) -> applyEnum(enumClass, id, value -> setter.accept(entity, value)));
     }
 
+    /** Variants named after the keys of a registry's entries. */
+    private static <E extends Entity, T extends Keyed> Variants<E> registryVariants(
+            Class<E> entityClass, RegistryKey<T> registryKey, Function<E, T> getter, BiConsumer<E, T> setter) {
+        return new Variants<>(entityClass,
+                entity -> {
+                    T value = getter.apply(entity);
+                    return value != null ? value.getKey().getKey() : null;
+                },
+                () -> {
+                    Set<String> ids = new HashSet<>();
+                    for (T value : registry(registryKey)) ids.add(value.getKey().getKey());
+                    return ids;
+                },
+                (entity, id) -> {
+                    T value = registry(registryKey).get(NamespacedKey.minecraft(id));
+                    if (value != null) setter.accept(entity, value);
+                });
+    }
+
+    /** Two variants for a boolean state, e.g. "angry" and "calm". */
+    private static <E extends Entity> Variants<E> flagVariants(
+            Class<E> entityClass, String on, String off, Predicate<E> getter, BiConsumer<E, Boolean> setter) {
+        return new Variants<>(entityClass,
+                entity -> getter.test(entity) ? on : off,
+                () -> new HashSet<>(Set.of(on, off)),
+                (entity, id) -> {
+                    if (id.equals(on)) setter.accept(entity, true);
+                    else if (id.equals(off)) setter.accept(entity, false);
+                });
+    }
+
+    private static <T extends Enum<T>> void applyEnum(Class<T> enumClass, String id, Consumer<T> setter) {
+        try {
+            setter.accept(Enum.valueOf(enumClass, id.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException ignored) {}
+    }
+
+    private static <T extends Keyed> Registry<T> registry(RegistryKey<T> key) {
+        return RegistryAccess.registryAccess().getRegistry(key);
+    }
+
+    private static Set<String> lowerCaseNames(Class<? extends Enum<?>> enumClass) {
+        Set<String> ids = new HashSet<>();
+        for (Enum<?> value : enumClass.getEnumConstants()) ids.add(value.name().toLowerCase(Locale.ROOT));
+        return ids;
+    }
+}
@@ -0,0 +1,121 @@
+package nu.nerd.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable, case-insensitive prefix trie over a fixed set of strings.
+ * <p>
+ * The keys are sorted once at build time. Every trie node remembers the range of
+ * sorted keys below it, so a lookup walks the prefix one character at a time and
+ * returns an immutable slice of the pre-sorted key list without filtering, sorting,
+ * or copying anything.
+ */
+public final class PrefixTrie {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    private final List<String> sorted;
+    private final Node root;
+
+    private PrefixTrie(List<String> sorted, Node root) {
+        this.sorted = sorted;
+        this.root = root;
+    }
+
+    /**
+     * Builds a trie over the given keys. Duplicate keys are kept once.
+     *
+     * @param keys the keys to index
+     * @return a new trie
+     */
+    public static PrefixTrie of(Collection<String> keys) {
+        List<String> sorted = keys.stream()
+                .distinct()
+                .sorted(String.CASE_INSENSITIVE_ORDER)
+                .toList();
+
+        BuildNode root = new BuildNode(0);
+        for (int i = 0; i < sorted.size(); i++) {
+            String key = sorted.get(i);
+            BuildNode node = root;
+            node.end = i + 1;
+            for (int c = 0; c < key.length(); c++) {
+                final int index = i;
+                node = node.children.computeIfAbsent(Character.toLowerCase(key.charAt(c)), k -> new BuildNode(index));
+                node.end = i + 1;
+            }
+        }
+
+        return new PrefixTrie(sorted, root.freeze());
+    }
+
+    /**
+     * Returns all keys starting with the given prefix, ignoring case.
+     *
+     * @param prefix the typed prefix
+     * @return an immutable, sorted view of the matching keys (possibly empty)
+     */
+    public List<String> complete(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(Character.toLowerCase(prefix.charAt(i)));
+        }
+        if (node == null) return List.of();
+        return sorted.subList(node.start, node.end);
+    }
+
+    /**
+     * Returns whether the exact key (ignoring case) is present.
+     *
+     * @param key the key to look up
+     * @return {@code true} if the key is in the trie
+     */
+    public boolean contains(String key) {
+        // Every match starts with the key, and the shortest match sorts first
+        List<String> matches = complete(key);
+        return !matches.isEmpty() && matches.get(0).length() == key.length();
+    }
+
+    /** @return all keys in sorted order */
+    public List<String> keys() {
+        return sorted;
+    }
+
+    /** Frozen trie node: sorted child characters plus the range of keys below it. */
+    private record Node(char[] chars, Node[] children, int start, int end) {
+        Node child(char c) {
+            int i = Arrays.binarySearch(chars, c);
+            return i >= 0 ? children[i] : null;
+        }
+    }
+
+    /** Mutable node used only while building. */
+    private static final class BuildNode {
+        final Map<Character, BuildNode> children = new TreeMap<>();
+        final int start;
+        int end;
+
+        BuildNode(int start) {
+            this.start = start;
+            this.end = start;
+        }
+
+        Node freeze() {
+            if (children.isEmpty()) return new Node(NO_CHARS, NO_NODES, start, end);
+            char[] chars = new char[children.size()];
+            List<Node> frozen = new ArrayList<>(children.size());
+            int i = 0;
+            for (Map.Entry<Character, BuildNode> entry : children.entrySet()) {
+                chars[i++] = entry.getKey();
+                frozen.add(entry.getValue().freeze());
+            }
+            return new Node(chars, frozen.toArray(NO_NODES), start, end);
+        }
+    }
+}
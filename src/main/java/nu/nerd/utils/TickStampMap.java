@@ -0,0 +1,157 @@
+package nu.nerd.utils;
+
+/**
+ * Compact map from {@code long} keys to a tick stamp and a counter, using open
+ * addressing over primitive arrays.
+ * <p>
+ * Entries expire a fixed number of ticks after their stamp. An expired entry behaves
+ * exactly like a missing key, so expired entries are simply purged when the table fills
+ * up and lookups never allocate.
+ * <p>
+ * Not thread-safe; intended for confinement to the main thread.
+ */
+public final class TickStampMap {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private int ttl;
+
+    private long[] keys;
+    private int[] stamps;
+    private int[] counts;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param ttl ticks after which an entry is considered expired
+     */
+    public TickStampMap(int ttl) {
+        this.ttl = ttl;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Changes the expiry and forgets all entries.
+     *
+     * @param ttl ticks after which an entry is considered expired
+     */
+    public void reset(int ttl) {
+        this.ttl = ttl;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Returns the slot for {@code key}. A new or expired entry is (re)initialised with a
+     * stamp of {@code now} and a count of zero.
+     *
+     * @param key the entry key
+     * @param now the current server tick
+     * @return the slot of the entry
+     */
+    public int touch(long key, int now) {
+        int slot = find(key);
+        if (slot < 0) {
+            if (size + 1 > keys.length * 3 / 4) {
+                compact(now);
+            }
+            slot = insertionSlot(key);
+            keys[slot] = key;
+            used[slot] = true;
+            size++;
+        } else if (now - stamps[slot] < ttl) {
+            return slot;
+        }
+        stamps[slot] = now;
+        counts[slot] = 0;
+        return slot;
+    }
+
+    /**
+     * @param slot a slot returned by {@link #touch}
+     * @return the tick the entry was (re)initialised at
+     */
+    public int stamp(int slot) {
+        return stamps[slot];
+    }
+
+    /**
+     * @param slot a slot returned by {@link #touch}
+     * @return the entry's counter
+     */
+    public int count(int slot) {
+        return counts[slot];
+    }
+
+    /**
+     * Increments the entry's counter.
+     *
+     * @param slot a slot returned by {@link #touch}
+     */
+    public void increment(int slot) {
+        counts[slot]++;
+    }
+
+    /** @return the number of entries currently tracked */
+    public int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (used[i]) i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Drops expired entries, then grows the table if it is still more than half full.
+     */
+    private void compact(int now) {
+        long[] oldKeys = keys;
+        int[] oldStamps = stamps;
+        int[] oldCounts = counts;
+        boolean[] oldUsed = used;
+
+        int live = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i] && now - oldStamps[i] < ttl) live++;
+        }
+
+        int newCapacity = oldKeys.length;
+        while (live + 1 > newCapacity / 2) newCapacity <<= 1;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i] || now - oldStamps[i] >= ttl) continue;
+            int slot = insertionSlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            stamps[slot] = oldStamps[i];
+            counts[slot] = oldCounts[i];
+            used[slot] = true;
+            size++;
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        stamps = new int[tableSize];
+        counts = new int[tableSize];
+        used = new boolean[tableSize];
+        size = 0;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
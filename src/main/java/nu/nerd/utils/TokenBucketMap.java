@@ -0,0 +1,166 @@
+package nu.nerd.utils;
+
+/**
+ * Compact map from {@code long} keys to token buckets, using open addressing over
+ * primitive arrays.
+ * <p>
+ * Each bucket holds a token count and the tick it was last refilled at. Tokens are
+ * refilled lazily from the elapsed time when a bucket is touched, so there is no
+ * background decay task and a lookup never allocates. Buckets that have fully refilled
+ * carry no information and are purged when the table fills up, so the map only grows
+ * with the number of keys that are actually being limited.
+ * <p>
+ * Not thread-safe; intended for confinement to the main thread.
+ */
+public final class TokenBucketMap {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private double capacity;
+    private double refillPerTick;
+
+    private long[] keys;
+    private float[] tokens;
+    private int[] stamps;
+    private boolean[] used;
+    private int size;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param capacity      bucket size, i.e. the largest burst allowed
+     * @param refillPerTick tokens added back per server tick
+     */
+    public TokenBucketMap(double capacity, double refillPerTick) {
+        this.capacity = capacity;
+        this.refillPerTick = refillPerTick;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Changes the bucket parameters and forgets all buckets.
+     *
+     * @param capacity      bucket size, i.e. the largest burst allowed
+     * @param refillPerTick tokens added back per server tick
+     */
+    public void reset(double capacity, double refillPerTick) {
+        this.capacity = capacity;
+        this.refillPerTick = refillPerTick;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Refills the bucket for {@code key} up to {@code now} and returns its slot,
+     * creating a full bucket if the key is new.
+     *
+     * @param key the bucket key
+     * @param now the current server tick
+     * @return the slot of the bucket, for {@link #hasToken} and {@link #consume}
+     */
+    public int refill(long key, int now) {
+        int slot = find(key);
+        if (slot < 0) {
+            if (size + 1 > keys.length * 3 / 4) {
+                compact(now);
+            }
+            slot = insertionSlot(key);
+            keys[slot] = key;
+            used[slot] = true;
+            tokens[slot] = (float) capacity;
+            stamps[slot] = now;
+            size++;
+            return slot;
+        }
+
+        int elapsed = now - stamps[slot];
+        if (elapsed > 0) {
+            tokens[slot] = (float) Math.min(capacity, tokens[slot] + elapsed * refillPerTick);
+            stamps[slot] = now;
+        }
+        return slot;
+    }
+
+    /**
+     * @param slot a slot returned by {@link #refill}
+     * @return {@code true} if the bucket has at least one whole token
+     */
+    public boolean hasToken(int slot) {
+        return tokens[slot] >= 1.0f;
+    }
+
+    /**
+     * Takes one token from the bucket.
+     *
+     * @param slot a slot returned by {@link #refill}
+     */
+    public void consume(int slot) {
+        tokens[slot] -= 1.0f;
+    }
+
+    /** @return the number of buckets currently tracked */
+    public int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int i = mix(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private int insertionSlot(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (used[i]) i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Drops buckets that are full again (they behave exactly like a missing key),
+     * then grows the table if it is still more than half full.
+     */
+    private void compact(int now) {
+        long[] oldKeys = keys;
+        float[] oldTokens = tokens;
+        int[] oldStamps = stamps;
+        boolean[] oldUsed = used;
+
+        int live = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i] && !isFull(oldTokens[i], oldStamps[i], now)) live++;
+        }
+
+        int newCapacity = oldKeys.length;
+        while (live + 1 > newCapacity / 2) newCapacity <<= 1;
+        allocate(newCapacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i] || isFull(oldTokens[i], oldStamps[i], now)) continue;
+            int slot = insertionSlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            tokens[slot] = oldTokens[i];
+            stamps[slot] = oldStamps[i];
+            used[slot] = true;
+            size++;
+        }
+    }
+
+    private boolean isFull(float bucketTokens, int stamp, int now) {
+        return bucketTokens + (now - stamp) * refillPerTick >= capacity;
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        tokens = new float[tableSize];
+        stamps = new int[tableSize];
+        used = new boolean[tableSize];
+        size = 0;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,144 @@
+package nu.nerd.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code N} highest-scoring keys of a set of growing scores, kept incrementally in a
+ * bounded min-heap.
+ * <p>
+ * {@link #offer} must be called whenever a key's score grows. Because scores never
+ * shrink, a key outside the heap can only enter it by beating the current minimum, so
+ * the heap is always the exact top {@code N} at O(log N) per update. The sorted view is
+ * cached until the next change.
+ * <p>
+ * Not thread-safe.
+ *
+ * @param <K> the key type
+ */
+public final class TopN<K> {
+
+    /**
+     * One ranked key.
+     *
+     * @param key   the key
+     * @param score its score
+     * @param <K>   the key type
+     */
+    public record Entry<K>(K key, long score) {}
+
+    private final Object[] keys;
+    private final long[] scores;
+    private final Map<K, Integer> positions = new HashMap<>();
+    private int size;
+    private List<Entry<K>> sorted = List.of();
+    private boolean changed;
+
+    /**
+     * Creates an empty top list.
+     *
+     * @param capacity the number of keys to keep
+     */
+    public TopN(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        keys = new Object[capacity];
+        scores = new long[capacity];
+    }
+
+    /**
+     * Reports a key's new score, which must not be lower than any score reported for it
+     * before.
+     *
+     * @param key   the key
+     * @param score its current score
+     */
+    public void offer(K key, long score) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            scores[position] = score;
+            siftDown(position);
+        } else if (size < keys.length) {
+            keys[size] = key;
+            scores[size] = score;
+            positions.put(key, size);
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            positions.remove(key(0));
+            keys[0] = key;
+            scores[0] = score;
+            positions.put(key, 0);
+            siftDown(0);
+        } else {
+            return;
+        }
+        changed = true;
+    }
+
+    /**
+     * Returns the kept keys, highest score first.
+     *
+     * @return an immutable list of at most {@code capacity} entries
+     */
+    public List<Entry<K>> sorted() {
+        if (changed) {
+            List<Entry<K>> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) entries.add(new Entry<>(key(i), scores[i]));
+            entries.sort((a, b) -> Long.compare(b.score(), a.score()));
+            sorted = List.copyOf(entries);
+            changed = false;
+        }
+        return sorted;
+    }
+
+    /**
+     * Forgets all keys.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        positions.clear();
+        size = 0;
+        sorted = List.of();
+        changed = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(int i) {
+        return (K) keys[i];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) smallest = left;
+            if (right < size && scores[right] < scores[smallest]) smallest = right;
+            if (smallest == i) return;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Object key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        positions.put(key(a), a);
+        positions.put(key(b), b);
+    }
+}
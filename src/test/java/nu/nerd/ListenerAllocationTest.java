@@ -0,0 +1,315 @@
+package nu.nerd;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadRule;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Note;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Skull;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Giant;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Skeleton;
+import org.bukkit.entity.Zombie;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.NotePlayEvent;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.profile.PlayerTextures;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the listeners' hot paths against allocation regressions, such as a stray stream
+ * or eager string concatenation in a handler that runs thousands of times a tick.
+ * <p>
+ * Each handler is driven many times on the {@link Stubs stub server} and the bytes the
+ * test thread allocated are read from {@link com.sun.management.ThreadMXBean}. Paths that
+ * must stay free are asserted to allocate nothing at all; the others are held to the same
+ * {@code allocation-budgets} from {@code config.yml} that {@code /mobhead profile} checks.
+ * Measured bytes include the argument arrays of calls into the stubs. Each figure is the
+ * least of several rounds, so a one-off allocation elsewhere in the JVM's bookkeeping on
+ * the test thread does not fail a run.
+ * <p>
+ * Head templates are seeded with {@link Stubs#head} items, so a successful roll goes all
+ * the way through delivery and the {@link HeadDropCoalescer} without building real items.
+ */
+class ListenerAllocationTest {
+
+    private static final int WARM_UP = 20_000;
+    private static final int MEASURED = 10_000;
+    private static final int ROUNDS = 5;
+
+    private static final String TEXTURE_URL =
+            "http://textures.minecraft.net/texture/5a6f1b3c9d2e4f7081a2b3c4d5e6f708192a3b4c5d6e7f8091a2b3c4d5e6f708";
+    private static final String CATALOG = """
+            drops:
+              ZOMBIE:
+                base-drop-chance: 0.0
+                looting-bonus: 0.0
+                itemstack:
+                  type: PLAYER_HEAD
+                  display-name: "<gold>Zombie Head</gold>"
+                  head-sound: "minecraft:entity.zombie.ambient"
+                  internal: "%s"
+                  url: %s
+              SKELETON:
+                base-drop-chance: 1.0
+                looting-bonus: 0.0
+            """.formatted(Base64.getEncoder().encodeToString(
+                    ("{\"textures\":{\"SKIN\":{\"url\":\"" + TEXTURE_URL + "\"}}}").getBytes(StandardCharsets.UTF_8)),
+            TEXTURE_URL);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @TempDir
+    static Path dataFolder;
+
+    private static CustomDrops plugin;
+    private static HeadDropCoalescer coalescer;
+    private static MobDeathListener deaths;
+    private static HeadPersistenceListener persistence;
+    private static NoteblockHeadSoundListener notes;
+    private static World world;
+    private static Player player;
+    private static DamageSource damageSource;
+    private static int dropped;
+
+    @BeforeAll
+    static void setUp() {
+        plugin = Stubs.plugin(dataFolder);
+        plugin.useCatalog(HeadCatalog.compile(YamlConfiguration.loadConfiguration(new StringReader(CATALOG)), 1));
+        plugin.getRateLimiter().configure(plugin.getConfig());
+        plugin.getNoteSoundThrottle().configure(plugin.getConfig());
+        plugin.getDamageAttribution().configure(plugin.getConfig(), plugin.getSlf4jLogger());
+        List<String> ruleIds = new ArrayList<>();
+        for (HeadRule rule : plugin.getCatalog().rules()) {
+            rule.prepare(Stubs::head);
+            ruleIds.add(rule.toString());
+        }
+
+        HeadCollectionTracker collections = HeadCollectionTracker.load(plugin, plugin.getSlf4jLogger());
+        collections.assignOrdinals(ruleIds);
+        coalescer = new HeadDropCoalescer();
+        deaths = new MobDeathListener(plugin, coalescer, plugin.getRateLimiter(), collections,
+                HeadLeaderboards.load(plugin, plugin.getSlf4jLogger()), plugin.getDamageAttribution());
+        persistence = new HeadPersistenceListener(plugin, plugin.getSlf4jLogger());
+        notes = new NoteblockHeadSoundListener(plugin, plugin.getNoteSoundThrottle());
+
+        world = Stubs.stub(World.class, Map.of(
+                "getName", "world",
+                "getUID", new UUID(7, 7),
+                "dropItemNaturally", (Stubs.Answer) args -> {
+                    dropped++;
+                    return null;
+                }));
+        player = Stubs.stub(Player.class, Map.of("getName", "Tester", "getUniqueId", new UUID(1, 2), "getWorld", world));
+        damageSource = Stubs.stub(DamageSource.class);
+    }
+
+    // ----------------------
+    // MobDeathListener
+    // ----------------------
+
+    @Test
+    void unconfiguredMobDeathAllocatesNothing() {
+        EntityDeathEvent event = new EntityDeathEvent(giant(), damageSource, new ArrayList<>());
+        assertEquals(0, allocated(() -> deaths.onEntityDeath(event)),
+                "the death of a mob without a configured head must not allocate");
+    }
+
+    @Test
+    void unconfiguredMobDamageAllocatesNothing() {
+        EntityDamageByEntityEvent event = new EntityDamageByEntityEvent(player, giant(),
+                EntityDamageEvent.DamageCause.ENTITY_ATTACK, damageSource, 4.0);
+        assertEquals(0, allocated(() -> deaths.onEntityDamageByEntity(event)),
+                "damage to a mob without a configured head must not allocate");
+    }
+
+    @Test
+    void configuredMobDamageStaysInBudget() {
+        EntityDamageByEntityEvent event = new EntityDamageByEntityEvent(player, zombie(),
+                EntityDamageEvent.DamageCause.ENTITY_ATTACK, damageSource, 4.0);
+        assertWithinBudget("MobDeathListener/EntityDamageByEntityEvent", () -> deaths.onEntityDamageByEntity(event));
+    }
+
+    @Test
+    void playerKillMissStaysInBudget() {
+        EntityDeathEvent event = new EntityDeathEvent(zombie(), damageSource, new ArrayList<>());
+        int[] tick = {0};
+        assertWithinBudget("MobDeathListener/EntityDeathEvent", () -> {
+            Stubs.setTick(++tick[0]);
+            deaths.onEntityDeath(event);
+        });
+    }
+
+    @Test
+    void playerKillDropStaysInBudget() {
+        EntityDeathEvent event = new EntityDeathEvent(skeleton(), damageSource, new ArrayList<>());
+        int before = dropped;
+        int[] tick = {0};
+        // The coalescer spawns the head at the end of each tick
+        assertWithinBudget("MobDeathListener/EntityDeathEvent", () -> {
+            Stubs.setTick(++tick[0]);
+            deaths.onEntityDeath(event);
+            coalescer.flush();
+        });
+        assertEquals(WARM_UP + ROUNDS * MEASURED, dropped - before, "every kill should have dropped a head");
+    }
+
+    // ----------------------
+    // HeadPersistenceListener
+    // ----------------------
+
+    @Test
+    void nonHeadBreakAllocatesNothing() {
+        BlockBreakEvent event = new BlockBreakEvent(block(Material.STONE, null), player);
+        assertEquals(0, allocated(() -> persistence.onHeadBreak(event)),
+                "breaking a block that is not a head must not allocate");
+    }
+
+    @Test
+    void nonHeadPlaceAllocatesNothing() {
+        BlockPlaceEvent event = new BlockPlaceEvent(block(Material.STONE, null), null, block(Material.STONE, null),
+                Stubs.item(Material.STONE, null, null), player, true, EquipmentSlot.HAND);
+        assertEquals(0, allocated(() -> {
+            persistence.onHeadPlace(event);
+            persistence.onHeadPlaced(event);
+        }), "placing a block that is not a head must not allocate");
+    }
+
+    @Test
+    void vanillaHeadBreakStaysInBudget() {
+        BlockBreakEvent event = new BlockBreakEvent(block(Material.PLAYER_HEAD, Stubs.stub(Skull.class)), player);
+        assertWithinBudget("HeadPersistenceListener/BlockBreakEvent", () -> persistence.onHeadBreak(event));
+    }
+
+    // ----------------------
+    // NoteblockHeadSoundListener
+    // ----------------------
+
+    @Test
+    void noteUnderNonHeadStaysInBudget() {
+        NotePlayEvent event = noteUnder(block(Material.AIR, null));
+        assertWithinBudget("NoteblockHeadSoundListener/NotePlayEvent", () -> notes.onNoteBlockPlay(event));
+    }
+
+    @Test
+    void noteUnderCustomHeadStaysInBudget() throws Exception {
+        PlayerTextures textures = Stubs.stub(PlayerTextures.class, Map.of("getSkin", new URI(TEXTURE_URL).toURL()));
+        PlayerProfile profile = Stubs.stub(PlayerProfile.class, Map.of("getTextures", textures));
+        PersistentDataContainer marked = Stubs.stub(PersistentDataContainer.class, Map.of(
+                "has", (Stubs.Answer) args -> MobHeadFactory.CUSTOM_HEAD_KEY.equals(args[0])));
+        Skull skull = Stubs.stub(Skull.class, Map.of("getPlayerProfile", profile, "getPersistentDataContainer", marked));
+        NotePlayEvent event = noteUnder(block(Material.PLAYER_HEAD, skull));
+        int[] tick = {0};
+        assertWithinBudget("NoteblockHeadSoundListener/NotePlayEvent", () -> {
+            Stubs.setTick(tick[0] += 20);
+            notes.onNoteBlockPlay(event);
+        });
+        assertTrue(plugin.getNoteSoundThrottle().played() > 0, "the custom head sound path was never reached");
+    }
+
+    // ----------------------
+    // HELPERS
+    // ----------------------
+
+    /**
+     * Warms the call up, then returns the fewest bytes allocated by {@value #MEASURED}
+     * calls over {@value #ROUNDS} rounds.
+     */
+    private static long allocated(Runnable call) {
+        for (int i = 0; i < WARM_UP; i++) call.run();
+        long least = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < MEASURED; i++) call.run();
+            least = Math.min(least, THREADS.getCurrentThreadAllocatedBytes() - before);
+        }
+        return least;
+    }
+
+    private static void assertWithinBudget(String handler, Runnable call) {
+        FileConfiguration config = plugin.getConfig();
+        long budget = config.getLong("allocation-budgets." + handler, config.getLong("allocation-budgets.default", 4096));
+        long perCall = allocated(call) / MEASURED;
+        assertTrue(perCall <= budget, handler + " allocated " + perCall + " bytes per call, over its budget of " + budget);
+    }
+
+    private static LivingEntity giant() {
+        return Stubs.stub(Giant.class, Map.of("getType", EntityType.GIANT, "getWorld", world));
+    }
+
+    /** A zombie last hit by {@link #player}, so its death goes through the head roll. */
+    private static LivingEntity zombie() {
+        return Stubs.stub(Zombie.class, Map.of(
+                "getType", EntityType.ZOMBIE,
+                "getWorld", world,
+                "getHealth", 20.0,
+                "getUniqueId", new UUID(3, 4),
+                "getEntitySpawnReason", CreatureSpawnEvent.SpawnReason.NATURAL,
+                "getMetadata", List.of(new FixedMetadataValue(plugin, player.getName())),
+                "getKiller", player));
+    }
+
+    /** A skeleton last hit by {@link #player}; skeletons always drop their head in this catalog. */
+    private static LivingEntity skeleton() {
+        return Stubs.stub(Skeleton.class, Map.of(
+                "getType", EntityType.SKELETON,
+                "getWorld", world,
+                "getLocation", new Location(world, 8, 64, 8),
+                "getHealth", 20.0,
+                "getUniqueId", new UUID(3, 5),
+                "getEntitySpawnReason", CreatureSpawnEvent.SpawnReason.NATURAL,
+                "getMetadata", List.of(new FixedMetadataValue(plugin, player.getName())),
+                "getKiller", player));
+    }
+
+    /**
+     * @param type  the block's material
+     * @param state what {@code getState} returns, or {@code null} for the default stub
+     */
+    private static Block block(Material type, Skull state) {
+        return state == null
+                ? Stubs.stub(Block.class, Map.of("getType", type, "getWorld", world))
+                : Stubs.stub(Block.class, Map.of("getType", type, "getWorld", world, "getState", state));
+    }
+
+    private static NotePlayEvent noteUnder(Block above) {
+        Block noteBlock = Stubs.stub(Block.class, Map.of(
+                "getType", Material.NOTE_BLOCK,
+                "getWorld", world,
+                "getRelative", above));
+        // The instrument is never read, and resolving one needs the sound registry
+        return new NotePlayEvent(noteBlock, null, new Note(12));
+    }
+}
@@ -0,0 +1,472 @@
+package nu.nerd;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.destroystokyo.paper.profile.PlayerProfile;
+import io.papermc.paper.persistence.PersistentDataContainerView;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import nu.nerd.catalog.HeadCatalog;
+import nu.nerd.catalog.HeadRule;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Note;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.Skull;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.NotePlayEvent;
+import org.bukkit.event.entity.CreatureSpawnEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.plugin.RegisteredListener;
+import org.bukkit.profile.PlayerTextures;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Headless load harness: drives the real listeners on the {@link Stubs stub server} at a
+ * fixed number of events per tick and profiles them with {@link ListenerProfiler}, so the
+ * report has the same JSON as {@code /mobhead profile} and runs can be diffed against each
+ * other and against live profiles.
+ * <p>
+ * Settings, as {@code key=value} arguments to {@link #main} or {@code harness.<key>} system
+ * properties:
+ * <ul>
+ *     <li>{@code ticks}: ticks to record (default {@value ListenerProfiler#DEFAULT_TICKS})</li>
+ *     <li>{@code damage}: player and mob hits per tick (N, default 200)</li>
+ *     <li>{@code deaths}: mob deaths per tick, half of them player kills (M, default 20)</li>
+ *     <li>{@code notes}: note block plays per tick (K, default 50)</li>
+ *     <li>{@code blocks}: head and block places and breaks per tick, alternating (P, default 10)</li>
+ *     <li>{@code chance}: base drop chance of every head; blank keeps the configured chances</li>
+ *     <li>{@code seed}: random seed for the event mix (default 1)</li>
+ *     <li>{@code output}: the plugin data folder; the report goes to its {@code profiles/}
+ *     (default {@code target/harness})</li>
+ * </ul>
+ * A {@code config.yml} already in the output folder is used as is, so budgets and limits can
+ * be tuned between runs. The catalog is compiled from its drops without looting bonuses,
+ * conditions or loot tables, and its templates are seeded with {@link Stubs#head} items,
+ * since the stub server cannot build real ones; successful rolls then go through delivery,
+ * collections, leaderboards and the {@link HeadDropCoalescer} as on a server. Heads are never
+ * restored from a block, and only mobs without variants are spawned.
+ */
+final class LoadHarness {
+
+    /** Mobs with a head in the bundled catalog and no variants, which would need registries */
+    private static final EntityType[] CONFIGURED = {
+            EntityType.ZOMBIE, EntityType.SKELETON, EntityType.CREEPER, EntityType.SPIDER,
+            EntityType.ENDERMAN, EntityType.WITCH, EntityType.DROWNED, EntityType.HUSK,
+            EntityType.STRAY, EntityType.PHANTOM, EntityType.PILLAGER, EntityType.SLIME
+    };
+    /** Has no head, so its events take the early exits */
+    private static final EntityType UNCONFIGURED = EntityType.GIANT;
+    private static final int MOBS_PER_TYPE = 16;
+    private static final int NOTE_BLOCKS = 256;
+    private static final int PLAYERS = 8;
+
+    /**
+     * The harness settings; rates are events per tick.
+     */
+    record Settings(int ticks, int damage, int deaths, int notes, int blocks, @Nullable Double chance, long seed,
+                    Path output) {
+
+        /**
+         * @param values looks a setting up by key, returning {@code null} if it is not set
+         * @return the settings, with defaults for those not set
+         */
+        static Settings from(Function<String, String> values) {
+            String chance = value(values, "chance", "");
+            return new Settings(
+                    Integer.parseInt(value(values, "ticks", String.valueOf(ListenerProfiler.DEFAULT_TICKS))),
+                    Integer.parseInt(value(values, "damage", "200")),
+                    Integer.parseInt(value(values, "deaths", "20")),
+                    Integer.parseInt(value(values, "notes", "50")),
+                    Integer.parseInt(value(values, "blocks", "10")),
+                    chance.isEmpty() ? null : Double.valueOf(chance),
+                    Long.parseLong(value(values, "seed", "1")),
+                    Path.of(value(values, "output", "target/harness")));
+        }
+
+        private static String value(Function<String, String> values, String key, String fallback) {
+            String value = values.apply(key);
+            return value == null || value.isBlank() ? fallback : value.trim();
+        }
+    }
+
+    /**
+     * What a run produced.
+     *
+     * @param report  the JSON profile written
+     * @param dropped heads spawned in the world
+     */
+    record Result(Path report, int dropped) {}
+
+    private final Settings settings;
+    private final Random random;
+    private final CustomDrops plugin;
+    private final World world;
+    private final Player[] players = new Player[PLAYERS];
+    private final LivingEntity[] mobs;
+    private final LivingEntity[] unconfigured = new LivingEntity[MOBS_PER_TYPE];
+    private final Block[] noteBlocks = new Block[NOTE_BLOCKS];
+    private final DamageSource damageSource = Stubs.stub(DamageSource.class);
+    private int dropped;
+
+    private final Block stone;
+    private final Block vanillaHead;
+    private final ItemStack stoneItem;
+    private final ItemStack vanillaHeadItem;
+    private final ItemStack customHeadItem;
+
+    private LoadHarness(Settings settings) throws IOException {
+        this.settings = settings;
+        this.random = new Random(settings.seed());
+        Files.createDirectories(settings.output());
+        plugin = Stubs.plugin(settings.output());
+        plugin.useCatalog(HeadCatalog.compile(catalogConfig(), 1));
+        plugin.getRateLimiter().configure(plugin.getConfig());
+        plugin.getNoteSoundThrottle().configure(plugin.getConfig());
+        plugin.getDamageAttribution().configure(plugin.getConfig(), plugin.getSlf4jLogger());
+        for (HeadRule rule : plugin.getCatalog().rules()) rule.prepare(Stubs::head);
+
+        world = Stubs.stub(World.class, Map.of(
+                "getName", "world",
+                "getUID", new UUID(7, 7),
+                "dropItemNaturally", (Stubs.Answer) args -> {
+                    dropped++;
+                    return null;
+                }));
+        Stubs.ONLINE.clear();
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = Stubs.stub(Player.class, Map.of(
+                    "getName", "Player" + i,
+                    "getUniqueId", new UUID(1, i),
+                    "getWorld", world));
+            Stubs.ONLINE.add(players[i]);
+        }
+
+        // Half of each type were last hit by a player, so their deaths go through the head roll
+        mobs = new LivingEntity[CONFIGURED.length * MOBS_PER_TYPE];
+        for (int i = 0; i < mobs.length; i++) {
+            mobs[i] = mob(CONFIGURED[i / MOBS_PER_TYPE], i % 2 == 0 ? players[i % PLAYERS] : null, i);
+        }
+        for (int i = 0; i < unconfigured.length; i++) {
+            unconfigured[i] = mob(UNCONFIGURED, null, mobs.length + i);
+        }
+
+        stone = block(Material.STONE, null, 0);
+        vanillaHead = block(Material.PLAYER_HEAD, Stubs.stub(Skull.class), 1);
+        stoneItem = Stubs.item(Material.STONE, null, null);
+        vanillaHeadItem = Stubs.item(Material.PLAYER_HEAD, null, null);
+        customHeadItem = Stubs.item(Material.PLAYER_HEAD, Stubs.stub(SkullMeta.class, Map.of(
+                "displayName", Component.text("Zombie Head"),
+                "lore", List.of(Component.text("[Certified Authentic]")))), customHeadData());
+
+        // Under the note blocks: custom heads with a sound, vanilla heads, and nothing
+        List<HeadRule> sounding = new ArrayList<>();
+        for (HeadRule rule : plugin.getCatalog().rules()) {
+            if (rule.headSound() != null && rule.url() != null) sounding.add(rule);
+        }
+        for (int i = 0; i < NOTE_BLOCKS; i++) {
+            Block above = switch (i % 4) {
+                case 0, 1 -> sounding.isEmpty() ? stone : customHead(sounding.get(i % sounding.size()), i);
+                case 2 -> vanillaHead;
+                default -> block(Material.AIR, null, i);
+            };
+            noteBlocks[i] = Stubs.stub(Block.class, Map.of(
+                    "getType", Material.NOTE_BLOCK,
+                    "getWorld", world,
+                    "getX", i * 3,
+                    "getY", 64,
+                    "getZ", (i % 16) * 5,
+                    "getBlockKey", (long) i,
+                    "getRelative", above));
+        }
+    }
+
+    /**
+     * Runs the harness with {@code key=value} arguments, falling back to
+     * {@code harness.<key>} system properties.
+     *
+     * @param args the settings
+     * @throws IOException if the data folder cannot be created
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split > 0) values.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+        Result result = run(Settings.from(key -> values.getOrDefault(key, System.getProperty("harness." + key))));
+        System.out.println(result.dropped() + " heads dropped");
+        System.out.println("Profile written to " + result.report().toAbsolutePath());
+    }
+
+    /**
+     * Runs the harness.
+     *
+     * @param settings the harness settings
+     * @return the report and what the run dropped
+     * @throws IOException if the data folder cannot be created or has no report afterwards
+     */
+    static Result run(Settings settings) throws IOException {
+        return new LoadHarness(settings).run();
+    }
+
+    private Result run() throws IOException {
+        List<String> ruleIds = new ArrayList<>();
+        for (HeadRule rule : plugin.getCatalog().rules()) ruleIds.add(rule.toString());
+        HeadCollectionTracker collections = HeadCollectionTracker.load(plugin, plugin.getSlf4jLogger());
+        collections.assignOrdinals(ruleIds);
+
+        HeadDropCoalescer coalescer = new HeadDropCoalescer();
+        register(coalescer);
+        register(new MobDeathListener(plugin, coalescer, plugin.getRateLimiter(), collections,
+                HeadLeaderboards.load(plugin, plugin.getSlf4jLogger()), plugin.getDamageAttribution()));
+        register(new HeadPersistenceListener(plugin, plugin.getSlf4jLogger()));
+        register(new NoteblockHeadSoundListener(plugin, plugin.getNoteSoundThrottle()));
+
+        ListenerProfiler profiler = plugin.getProfiler();
+        register(profiler);
+
+        try {
+            profiler.start(console(), settings.ticks());
+            // The tick end flushes the coalescer, then the profiler, which stops itself after the
+            // last tick and writes its report through the scheduler, which the stub server runs at once
+            for (int tick = 1; profiler.isRunning(); tick++) {
+                Stubs.setTick(tick);
+                long start = System.nanoTime();
+                tick();
+                fire(new ServerTickEndEvent(tick, (System.nanoTime() - start) / 1_000_000.0, 0));
+            }
+        } finally {
+            HandlerList.unregisterAll(plugin);
+        }
+
+        try (Stream<Path> reports = Files.list(settings.output().resolve("profiles"))) {
+            Path report = reports.filter(path -> path.getFileName().toString().endsWith(".json"))
+                    .max(Comparator.comparing(path -> path.toFile().lastModified()))
+                    .orElseThrow(() -> new IOException("No profile was written"));
+            return new Result(report, dropped);
+        }
+    }
+
+    /**
+     * Fires one tick's worth of events.
+     */
+    private void tick() {
+        for (int i = 0; i < settings.damage(); i++) {
+            LivingEntity victim = victim();
+            // A quarter of the hits come from another mob, which attribution ignores
+            Entity damager = random.nextInt(4) == 0 ? mobs[random.nextInt(mobs.length)] : randomPlayer();
+            fire(new EntityDamageByEntityEvent(damager, victim, EntityDamageEvent.DamageCause.ENTITY_ATTACK,
+                    damageSource, 4.0));
+        }
+        for (int i = 0; i < settings.deaths(); i++) {
+            fire(new EntityDeathEvent(victim(), damageSource, new ArrayList<>()));
+        }
+        for (int i = 0; i < settings.notes(); i++) {
+            // The instrument is never read, and resolving one needs the sound registry
+            fire(new NotePlayEvent(noteBlocks[random.nextInt(NOTE_BLOCKS)], null, new Note(random.nextInt(25))));
+        }
+        for (int i = 0; i < settings.blocks(); i++) {
+            Player player = randomPlayer();
+            if (i % 2 == 0) {
+                ItemStack item = switch (random.nextInt(3)) {
+                    case 0 -> stoneItem;
+                    case 1 -> vanillaHeadItem;
+                    default -> customHeadItem;
+                };
+                Block placed = item == stoneItem ? stone : vanillaHead;
+                fire(new BlockPlaceEvent(placed, null, stone, item, player, true, EquipmentSlot.HAND));
+            } else {
+                fire(new BlockBreakEvent(random.nextBoolean() ? stone : vanillaHead, player));
+            }
+        }
+    }
+
+    // ----------------------
+    // EVENTS
+    // ----------------------
+
+    /**
+     * Registers the listener's {@link EventHandler} methods as the server would, so the
+     * profiler wraps and names them the same way.
+     */
+    private void register(Listener listener) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (Method method : listener.getClass().getDeclaredMethods()) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+            if (annotation == null || method.getParameterCount() != 1) continue;
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            try {
+                HandlerList handlers = (HandlerList) eventClass.getMethod("getHandlerList").invoke(null);
+                // An exact-typed handle, so dispatching allocates nothing of its own
+                MethodHandle handle = lookup.unreflect(method)
+                        .asType(MethodType.methodType(void.class, Listener.class, Event.class));
+                handlers.register(new RegisteredListener(listener, (target, event) -> {
+                    if (!eventClass.isInstance(event)) return;
+                    try {
+                        handle.invokeExact(target, event);
+                    } catch (Throwable t) {
+                        throw new EventException(t);
+                    }
+                }, annotation.priority(), plugin, annotation.ignoreCancelled()));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not register " + method, e);
+            }
+        }
+    }
+
+    private static void fire(Event event) {
+        for (RegisteredListener listener : event.getHandlers().getRegisteredListeners()) {
+            try {
+                listener.callEvent(event);
+            } catch (EventException e) {
+                throw new IllegalStateException("Handler failed on " + event.getEventName(), e.getCause());
+            }
+        }
+    }
+
+    private LivingEntity victim() {
+        return random.nextInt(8) == 0
+                ? unconfigured[random.nextInt(unconfigured.length)]
+                : mobs[random.nextInt(mobs.length)];
+    }
+
+    private Player randomPlayer() {
+        return players[random.nextInt(PLAYERS)];
+    }
+
+    // ----------------------
+    // STUBS
+    // ----------------------
+
+    /**
+     * The configured drops without looting bonuses, whose lookup reads the killer's real
+     * main hand item, conditions or loot tables, whose items the stub server cannot build.
+     */
+    private YamlConfiguration catalogConfig() {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(
+                settings.output().resolve("config.yml").toFile());
+        ConfigurationSection drops = config.getConfigurationSection("drops");
+        if (drops != null) {
+            for (String key : drops.getKeys(false)) {
+                ConfigurationSection drop = drops.getConfigurationSection(key);
+                if (drop == null) continue;
+                simplify(drop);
+                ConfigurationSection variants = drop.getConfigurationSection("variants");
+                if (variants == null) continue;
+                for (String variant : variants.getKeys(false)) {
+                    ConfigurationSection section = variants.getConfigurationSection(variant);
+                    if (section != null) simplify(section);
+                }
+            }
+        }
+        config.set("overlays", null);
+        return config;
+    }
+
+    private void simplify(ConfigurationSection section) {
+        if (settings.chance() != null) section.set("base-drop-chance", settings.chance());
+        section.set("looting-bonus", 0.0);
+        section.set("conditions", null);
+        section.set("loot-tables", null);
+    }
+
+    private LivingEntity mob(EntityType type, Player killer, int index) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getType", type);
+        answers.put("getWorld", world);
+        answers.put("getHealth", 20.0);
+        answers.put("getUniqueId", new UUID(2, index));
+        answers.put("getX", (double) (index % 64) * 16);
+        answers.put("getZ", (double) (index / 64) * 16);
+        answers.put("getLocation", new Location(world, (index % 64) * 16, 64, (index / 64) * 16));
+        answers.put("getEntitySpawnReason", CreatureSpawnEvent.SpawnReason.NATURAL);
+        if (killer != null) {
+            answers.put("getMetadata", List.of(new FixedMetadataValue(plugin, killer.getName())));
+            answers.put("getKiller", killer);
+        }
+        return (LivingEntity) Stubs.stub(type.getEntityClass(), answers);
+    }
+
+    private Block block(Material type, Skull state, int index) {
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getType", type);
+        answers.put("getWorld", world);
+        answers.put("getX", index);
+        answers.put("getY", 65);
+        answers.put("getZ", 0);
+        if (state != null) answers.put("getState", state);
+        return Stubs.stub(Block.class, answers);
+    }
+
+    private Block customHead(HeadRule rule, int index) {
+        try {
+            PlayerTextures textures = Stubs.stub(PlayerTextures.class, Map.of("getSkin", new URI(rule.url()).toURL()));
+            PlayerProfile profile = Stubs.stub(PlayerProfile.class, Map.of("getTextures", textures));
+            return block(Material.PLAYER_HEAD, Stubs.stub(Skull.class, Map.of(
+                    "getPlayerProfile", profile,
+                    "getPersistentDataContainer", Stubs.stub(PersistentDataContainer.class, Map.of(
+                            "has", (Stubs.Answer) args -> MobHeadFactory.CUSTOM_HEAD_KEY.equals(args[0]))))), index);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Bad texture URL for " + rule, e);
+        }
+    }
+
+    /** Item data that carries only the custom head flag, so placing it is stored on the block. */
+    private static PersistentDataContainerView customHeadData() {
+        return Stubs.stub(PersistentDataContainerView.class, Map.of(
+                "has", (Stubs.Answer) args -> args[0] instanceof NamespacedKey key && key.getKey().equals("custom_head")));
+    }
+
+    private static CommandSender console() {
+        return Stubs.stub(CommandSender.class, Map.of(
+                "getName", "LoadHarness",
+                "sendMessage", (Stubs.Answer) args -> {
+                    Object message = args[0];
+                    System.out.println(message instanceof Component component
+                            ? PlainTextComponentSerializer.plainText().serialize(component)
+                            : String.valueOf(message));
+                    return null;
+                }));
+    }
+}
@@ -0,0 +1,41 @@
+package nu.nerd;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link LoadHarness} briefly, so it keeps working as the listeners change.
+ * Longer runs take their settings from {@code -Dharness.<key>=...}.
+ */
+class LoadHarnessTest {
+
+    @TempDir
+    Path dataFolder;
+
+    @Test
+    void dropsHeadsAndWritesProfileReport() throws Exception {
+        // A short run into the temporary folder unless told otherwise
+        LoadHarness.Settings settings = LoadHarness.Settings.from(key -> switch (key) {
+            case "ticks" -> System.getProperty("harness.ticks", "100");
+            case "output" -> System.getProperty("harness.output", dataFolder.toString());
+            // High enough that a short run drops heads
+            case "chance" -> System.getProperty("harness.chance", "0.1");
+            default -> System.getProperty("harness." + key);
+        });
+
+        LoadHarness.Result result = LoadHarness.run(settings);
+
+        String json = Files.readString(result.report());
+        assertTrue(json.contains("\"ticks\": " + settings.ticks()), json);
+        assertTrue(json.contains("MobDeathListener/EntityDeathEvent"), json);
+        assertTrue(json.contains("HeadPersistenceListener/BlockPlaceEvent"), json);
+        assertTrue(json.contains("NoteblockHeadSoundListener/NotePlayEvent"), json);
+        assertTrue(json.contains("HeadDropCoalescer/ServerTickEndEvent"), json);
+        assertTrue(result.dropped() > 0, "no head was dropped");
+    }
+}
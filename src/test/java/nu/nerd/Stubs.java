@@ -0,0 +1,327 @@
+package nu.nerd;
+
+import io.papermc.paper.persistence.PersistentDataContainerView;
+import nu.nerd.catalog.HeadRule;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Logger;
+
+/**
+ * {@link Proxy}-based stand-ins for the parts of the Bukkit API the listeners touch, so the
+ * allocation tests and the load harness can drive them without a server or MockBukkit.
+ * <p>
+ * A stub answers a method from its answers by name. Anything else gets a default: zero or
+ * false, an empty collection, the first enum constant, a shared stub for interface return
+ * types, or {@code null}. Defaults are created once per stub, so a call that passes no
+ * arguments allocates nothing; calls with arguments cost the proxy's argument array.
+ * <p>
+ * Types whose interfaces are initialised from registries (sounds, biomes, enchantments,
+ * entity variants) cannot be stubbed, since their constants need a real server.
+ */
+final class Stubs {
+
+    /** Computes an answer from the call's arguments ({@code null} for no-argument calls). */
+    @FunctionalInterface
+    interface Answer {
+        Object answer(Object[] args) throws Throwable;
+    }
+
+    /** Boxed tick numbers, so {@link Bukkit#getCurrentTick()} never allocates */
+    private static final Integer[] TICKS = new Integer[1 << 16];
+    private static final Object NONE = new Object();
+    /** What {@link Bukkit#getOnlinePlayers()} returns */
+    static final List<Player> ONLINE = new CopyOnWriteArrayList<>();
+
+    private static Server server;
+    private static int tick;
+
+    static {
+        for (int i = 0; i < TICKS.length; i++) TICKS[i] = i;
+    }
+
+    private Stubs() {}
+
+    /**
+     * @param type    the interface to stub
+     * @param answers return values or {@link Answer}s, by method name
+     * @return the stub
+     */
+    static <T> T stub(Class<T> type, Map<String, ?> answers) {
+        return type.cast(Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type},
+                new Answers(type.getSimpleName(), answers)));
+    }
+
+    /**
+     * @param type the interface to stub
+     * @return a stub that only returns defaults
+     */
+    static <T> T stub(Class<T> type) {
+        return stub(type, Map.of());
+    }
+
+    /**
+     * Installs the stub server as {@link Bukkit#getServer()}, once per JVM. It is set
+     * directly rather than through {@link Bukkit#setServer}, which asks the server
+     * implementation for build information.
+     *
+     * @return the stub server
+     */
+    static synchronized Server server() {
+        if (server != null) return server;
+
+        Map<String, Object> scheduler = new HashMap<>();
+        // One-off tasks run at once; repeating and delayed tasks never run
+        Answer runNow = args -> {
+            if (args[1] instanceof Runnable task) task.run();
+            return stub(BukkitTask.class);
+        };
+        scheduler.put("runTask", runNow);
+        scheduler.put("runTaskAsynchronously", runNow);
+
+        Map<String, Object> answers = new HashMap<>();
+        answers.put("getLogger", Logger.getLogger("StubServer"));
+        answers.put("getName", "StubServer");
+        answers.put("getVersion", "stub");
+        answers.put("getBukkitVersion", "stub");
+        answers.put("getCurrentTick", (Answer) args -> TICKS[tick]);
+        answers.put("isPrimaryThread", true);
+        answers.put("getOnlinePlayers", ONLINE);
+        answers.put("getScheduler", stub(BukkitScheduler.class, scheduler));
+        server = stub(Server.class, answers);
+
+        try {
+            Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not install the stub server", e);
+        }
+        return server;
+    }
+
+    /**
+     * Sets what {@link Bukkit#getCurrentTick()} returns.
+     *
+     * @param now the tick, below 65536
+     */
+    static void setTick(int now) {
+        tick = now & (TICKS.length - 1);
+    }
+
+    /**
+     * Creates an item without the server, which {@link ItemStack}'s own constructors need.
+     *
+     * @param type      the item's material
+     * @param meta      what {@code getItemMeta} returns, or {@code null} for an item without meta
+     * @param container what {@code getPersistentDataContainer} returns, or {@code null} for an empty one
+     * @return the item
+     */
+    static ItemStack item(Material type, @Nullable ItemMeta meta, @Nullable PersistentDataContainerView container) {
+        PersistentDataContainerView data = container != null ? container : stub(PersistentDataContainerView.class);
+        return new ItemStack() {
+            @Override
+            public Material getType() {
+                return type;
+            }
+
+            @Override
+            public boolean hasItemMeta() {
+                return meta != null;
+            }
+
+            @Override
+            public ItemMeta getItemMeta() {
+                return meta;
+            }
+
+            @Override
+            public PersistentDataContainerView getPersistentDataContainer() {
+                return data;
+            }
+        };
+    }
+
+    /**
+     * Creates the item a rule's template would be, with the data the plugin reads back
+     * from heads: the custom head flag, the rule id and the head sound. Seed templates
+     * with it through {@link HeadRule#prepare}, so heads can be made without the server.
+     *
+     * @param rule the head rule
+     * @return one head of the rule
+     */
+    static ItemStack head(HeadRule rule) {
+        Map<NamespacedKey, Object> data = new HashMap<>();
+        data.put(MobHeadFactory.CUSTOM_HEAD_KEY, (byte) 1);
+        data.put(MobHeadFactory.HEAD_RULE_KEY, rule.toString());
+        if (rule.headSound() != null) data.put(new NamespacedKey("nerdnucustomdrops", "head_sound"), rule.headSound());
+        return new Head(rule.material(), 1, Map.copyOf(data), null);
+    }
+
+    /**
+     * Creates the plugin on the stub server, with the bundled {@code config.yml} saved to
+     * the data folder. Nothing is enabled and no catalog is installed.
+     *
+     * @param dataFolder the plugin's data folder
+     * @return the plugin
+     */
+    @SuppressWarnings({"deprecation", "removal"})
+    static CustomDrops plugin(Path dataFolder) {
+        Server stubServer = server();
+        PluginDescriptionFile description = new PluginDescriptionFile("NerdNuCustomDrops", "test", CustomDrops.class.getName());
+        CustomDrops plugin = new CustomDrops(new JavaPluginLoader(stubServer), description,
+                dataFolder.toFile(), dataFolder.resolve("NerdNuCustomDrops.jar").toFile());
+        plugin.saveDefaultConfig();
+        return plugin;
+    }
+
+    /**
+     * A stackable item with fixed persistent data, standing in for a head. Clones share
+     * the data, which is never modified, so cloning only copies the type and amount.
+     */
+    private static final class Head extends ItemStack {
+
+        private final Material type;
+        private final Map<NamespacedKey, Object> data;
+        private PersistentDataContainerView view;
+        private int amount;
+
+        Head(Material type, int amount, Map<NamespacedKey, Object> data, @Nullable PersistentDataContainerView view) {
+            this.type = type;
+            this.amount = amount;
+            this.data = data;
+            this.view = view;
+        }
+
+        @Override
+        public Material getType() {
+            return type;
+        }
+
+        @Override
+        public int getAmount() {
+            return amount;
+        }
+
+        @Override
+        public void setAmount(int amount) {
+            this.amount = amount;
+        }
+
+        @Override
+        public int getMaxStackSize() {
+            return 64;
+        }
+
+        @Override
+        public boolean hasItemMeta() {
+            return true;
+        }
+
+        @Override
+        public PersistentDataContainerView getPersistentDataContainer() {
+            if (view == null) {
+                view = stub(PersistentDataContainerView.class, Map.of(
+                        "get", (Answer) args -> data.get(args[0]),
+                        "has", (Answer) args -> data.containsKey(args[0]),
+                        "isEmpty", data.isEmpty()));
+            }
+            return view;
+        }
+
+        @Override
+        public boolean isSimilar(@Nullable ItemStack other) {
+            return other instanceof Head head && head.type == type && head.data.equals(data);
+        }
+
+        @Override
+        public Head clone() {
+            return new Head(type, amount, data, getPersistentDataContainer());
+        }
+    }
+
+    /**
+     * Answers a stub's calls.
+     */
+    private static final class Answers implements InvocationHandler {
+
+        private final String name;
+        private final Map<String, ?> answers;
+        private final Map<Class<?>, Object> defaults = new ConcurrentHashMap<>();
+        private final Integer hash = System.identityHashCode(this);
+
+        Answers(String name, Map<String, ?> answers) {
+            this.name = name;
+            this.answers = answers;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            Object answer = answers.get(methodName);
+            if (answer instanceof Answer computed) return computed.answer(args);
+            if (answer != null) return answer;
+
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (methodName) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> hash;
+                    default -> "Stub" + name;
+                };
+            }
+
+            Class<?> type = method.getReturnType();
+            if (type == void.class) return null;
+            Object value = defaults.get(type);
+            if (value == null) {
+                value = defaultFor(type);
+                defaults.put(type, value);
+            }
+            return value == NONE ? null : value;
+        }
+
+        private static Object defaultFor(Class<?> type) {
+            if (type == boolean.class) return false;
+            if (type == int.class) return 0;
+            if (type == long.class) return 0L;
+            if (type == double.class) return 0.0;
+            if (type == float.class) return 0.0f;
+            if (type == short.class) return (short) 0;
+            if (type == byte.class) return (byte) 0;
+            if (type == char.class) return '\0';
+            if (type == String.class) return "";
+            if (type == UUID.class) return new UUID(0, 0);
+            if (type == Optional.class) return Optional.empty();
+            if (type == Set.class) return Set.of();
+            if (type == Map.class) return Map.of();
+            if (type == List.class || type == Collection.class || type == Iterable.class) return List.of();
+            if (type.isEnum()) return type.getEnumConstants()[0];
+            if (type.isInterface()) return stub(type);
+            return NONE;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package nu.nerd.catalog;
+
+import org.bukkit.World;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.MemoryConfiguration;
+import org.bukkit.entity.LivingEntity;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how {@code time} windows compile, in particular the ones whose ends meet once
+ * normalized to a day.
+ */
+class DropConditionsTest {
+
+    @Test
+    void wholeDayWindowsAlwaysMatch() {
+        assertNull(DropConditions.compile(conditions(Map.of("from", 0))));
+        assertNull(DropConditions.compile(conditions(Map.of("to", 24000))));
+        assertNull(DropConditions.compile(conditions(Map.of("from", 0, "to", 24000))));
+        assertNull(DropConditions.compile(conditions(Map.of("from", 6000, "to", 30000))));
+        assertNull(DropConditions.compile(conditions(Map.of("from", 12000, "to", 12000))));
+        assertNull(DropConditions.compile(conditions(Map.of("from", 18000, "to", -6000))));
+    }
+
+    @Test
+    void nightWindowWrapsPastMidnight() {
+        DropCondition night = DropConditions.compile(conditions(Map.of("from", 13000, "to", 23000)));
+        assertTrue(night.test(mobAt(13000), null));
+        assertTrue(night.test(mobAt(22999), null));
+        assertFalse(night.test(mobAt(23000), null));
+        assertFalse(night.test(mobAt(6000), null));
+
+        DropCondition aroundMidnight = DropConditions.compile(conditions(Map.of("from", 22000, "to", 26000)));
+        assertTrue(aroundMidnight.test(mobAt(23000), null));
+        assertTrue(aroundMidnight.test(mobAt(1000), null));
+        assertFalse(aroundMidnight.test(mobAt(2000), null));
+    }
+
+    private static ConfigurationSection conditions(Map<String, Integer> time) {
+        ConfigurationSection section = new MemoryConfiguration().createSection("conditions");
+        section.createSection("time", time);
+        return section;
+    }
+
+    /** A mob in a world at the given time of day; time windows read nothing else. */
+    private static LivingEntity mobAt(long time) {
+        World world = proxy(World.class, "getTime", time);
+        return proxy(LivingEntity.class, "getWorld", world);
+    }
+
+    private static <T> T proxy(Class<T> type, String method, Object answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, called, args) -> {
+            if (called.getName().equals(method)) return answer;
+            throw new UnsupportedOperationException(called.getName());
+        }));
+    }
+}